@@ -0,0 +1,46 @@
+package com.rest.demo.benchmark;
+
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class CustomerConverterBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final CustomerConverter converter = new CustomerConverter();
+    private CustomerModel model;
+    private Customer customer;
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        model = CustomerFixtures.model(1L);
+        customer = CustomerFixtures.customer(1L);
+        customers = CustomerFixtures.customers(pageSize);
+    }
+
+    @Benchmark
+    public Customer toEntity() {
+        return converter.toEntity(model);
+    }
+
+    @Benchmark
+    public CustomerModel toModel() {
+        return converter.toModel(customer);
+    }
+
+    @Benchmark
+    public CustomerResponse<List<CustomerModel>> toResponseList() {
+        return converter.toResponse("Success", customers);
+    }
+}
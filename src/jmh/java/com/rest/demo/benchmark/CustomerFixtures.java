@@ -0,0 +1,32 @@
+package com.rest.demo.benchmark;
+
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class CustomerFixtures {
+    private static final LocalDate BASE_BIRTHDATE = LocalDate.of(1970, 1, 1);
+
+    private CustomerFixtures() {
+    }
+
+    static Customer customer(long id) {
+        return new Customer(id, "Customer " + id, "Jl. Sudirman No. " + id + ", Jakarta", BASE_BIRTHDATE.plusDays(id % 20000));
+    }
+
+    static CustomerModel model(long id) {
+        return new CustomerModel(id, "Customer " + id, "Jl. Sudirman No. " + id + ", Jakarta",
+                BASE_BIRTHDATE.plusDays(id % 20000).toString());
+    }
+
+    static List<Customer> customers(int size) {
+        List<Customer> customers = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            customers.add(customer(id));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,117 @@
+package com.rest.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.converter.CustomerJsonModule;
+import com.rest.demo.converter.CustomerProtobufHttpMessageConverter;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes a page of customers through each response converter. Throughput gives the encode cost; bytes per
+ * customer, plain and gzipped, are printed once per trial since they do not change between iterations.
+ */
+@State(Scope.Benchmark)
+public class CustomerFormatBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+
+    private HttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private CustomerResponse<List<Customer>> response;
+    private final BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+
+    @Setup
+    public void setUp() {
+        switch (format) {
+            case "json":
+                converter = new MappingJackson2HttpMessageConverter(mapper(new ObjectMapper()));
+                mediaType = MediaType.APPLICATION_JSON;
+                break;
+            case "smile":
+                converter = new MappingJackson2SmileHttpMessageConverter(mapper(new ObjectMapper(new SmileFactory())));
+                mediaType = new MediaType("application", "x-jackson-smile");
+                break;
+            case "cbor":
+                converter = new MappingJackson2CborHttpMessageConverter(mapper(new ObjectMapper(new CBORFactory())));
+                mediaType = MediaType.APPLICATION_CBOR;
+                break;
+            default:
+                converter = new CustomerProtobufHttpMessageConverter();
+                mediaType = CustomerProtobufHttpMessageConverter.PROTOBUF;
+        }
+        List<Customer> customers = CustomerFixtures.customers(pageSize);
+        response = new CustomerConverter().toEntityResponse("Success",
+                new SliceImpl<>(customers, PageRequest.of(0, pageSize), true));
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        outputMessage.reset();
+        converter.write(response, mediaType, outputMessage);
+        return outputMessage.body.size();
+    }
+
+    @TearDown
+    public void reportSize() throws IOException {
+        outputMessage.reset();
+        converter.write(response, mediaType, outputMessage);
+        byte[] encoded = outputMessage.body.toByteArray();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%n%s, %d customers: %.1f bytes/customer, %.1f gzipped%n", format, pageSize,
+                (double) encoded.length / pageSize, (double) gzipped.size() / pageSize);
+    }
+
+    private ObjectMapper mapper(ObjectMapper objectMapper) {
+        return objectMapper.registerModule(new CustomerJsonModule());
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 20);
+        private HttpHeaders headers = new HttpHeaders();
+
+        void reset() {
+            body.reset();
+            headers = new HttpHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
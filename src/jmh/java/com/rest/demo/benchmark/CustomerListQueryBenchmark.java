@@ -0,0 +1,85 @@
+package com.rest.demo.benchmark;
+
+import com.rest.demo.DemoApplication;
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.service.CustomerService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the managed-entity list path with the JDBC projection path against an embedded Postgres.
+ * Run with the gc profiler and compare gc.alloc.rate.norm for the per-request allocation.
+ */
+@State(Scope.Benchmark)
+public class CustomerListQueryBenchmark {
+    private static final int ROWS = 10_000;
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerConverter customerConverter;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                        "spring.datasource.username=postgres",
+                        "spring.datasource.password=postgres",
+                        "spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres")
+                .run();
+        customerService = context.getBean(CustomerService.class);
+        customerConverter = context.getBean(CustomerConverter.class);
+        pageable = PageRequest.of(1, pageSize, Sort.by(Sort.Direction.ASC, "id"));
+
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (long id = 1; id <= ROWS; id++) {
+            CustomerModel model = CustomerFixtures.model(id);
+            rows.add(new Object[]{model.getName(), model.getAddress(), Date.valueOf(model.getBirthdate())});
+        }
+        context.getBean(JdbcTemplate.class)
+                .batchUpdate("INSERT INTO customer (name, address, birthdate) VALUES (?, ?, ?)", rows);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public CustomerResponse<List<CustomerModel>> entityPage() {
+        return customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customerService.findAllCustomers(pageable));
+    }
+
+    @Benchmark
+    public CustomerResponse<List<CustomerModel>> projectionPage() {
+        return customerConverter.toModelResponse(ResponseEnum.SUCCESS.getMessage(), customerService.findAllCustomerModels(pageable));
+    }
+}
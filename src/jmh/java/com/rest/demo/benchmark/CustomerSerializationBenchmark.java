@@ -0,0 +1,58 @@
+package com.rest.demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.converter.CustomerJsonModule;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class CustomerSerializationBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CustomerConverter converter = new CustomerConverter();
+    private ObjectWriter writer;
+    private ObjectWriter directWriter;
+    private CustomerResponse<List<CustomerModel>> response;
+    private Slice<Customer> page;
+
+    @Setup
+    public void setUp() {
+        writer = objectMapper.writer();
+        directWriter = new ObjectMapper().registerModule(new CustomerJsonModule()).writer();
+        List<Customer> customers = CustomerFixtures.customers(pageSize);
+        response = converter.toResponse("Success", customers);
+        page = new SliceImpl<>(customers, PageRequest.of(0, pageSize), true);
+    }
+
+    @Benchmark
+    public byte[] serializeListResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    // Full response path before CustomerJsonModule: entity -> CustomerModel copy -> reflective bean serialization
+    @Benchmark
+    public byte[] convertAndSerializeModelPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(converter.toResponse("Success", page));
+    }
+
+    @Benchmark
+    public byte[] serializeEntityPageDirect() throws JsonProcessingException {
+        return directWriter.writeValueAsBytes(converter.toEntityResponse("Success", page));
+    }
+}
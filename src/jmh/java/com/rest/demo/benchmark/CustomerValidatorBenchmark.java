@@ -0,0 +1,19 @@
+package com.rest.demo.benchmark;
+
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.validator.CustomerValidator;
+import com.rest.demo.validator.ValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class CustomerValidatorBenchmark {
+    private final CustomerValidator validator = new CustomerValidator();
+    private final CustomerModel model = CustomerFixtures.model(1L);
+
+    @Benchmark
+    public ValidationResult validateRequest() {
+        return validator.validateRequest(model);
+    }
+}
@@ -0,0 +1,42 @@
+package com.rest.demo.benchmark;
+
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+import org.openjdk.jmh.annotations.CompilerControl;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.ValidationException;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The exception-based failure path as it was before validation returned results: CustomerValidator.validateRequest
+ * and CustomerService.findCustomerById copied unchanged. They are kept out of line, as the controller reached them
+ * through a separate bean, so the JIT cannot fold the throw into the caller's catch.
+ */
+final class LegacyCustomerValidation {
+    private final Function<Long, Optional<Customer>> customerRepository;
+
+    LegacyCustomerValidation(Function<Long, Optional<Customer>> customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public void validateRequest(CustomerModel customerModel) throws ValidationException {
+        if (customerModel.getName().isEmpty()) {
+            throw new ValidationException("name must not be empty");
+        }
+        if (customerModel.getAddress().isEmpty()) {
+            throw new ValidationException("address must not be empty");
+        }
+        if (customerModel.getBirthdate().isEmpty()) {
+            throw new ValidationException("birthdate must not be empty");
+        }
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Customer findCustomerById(Long id) {
+        return customerRepository.apply(id)
+                .orElseThrow(() -> new EntityNotFoundException("Customer with id: " + id + " is not found"));
+    }
+}
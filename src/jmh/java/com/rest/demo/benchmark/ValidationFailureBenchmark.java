@@ -0,0 +1,59 @@
+package com.rest.demo.benchmark;
+
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.validator.CustomerValidator;
+import com.rest.demo.validator.ValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.ValidationException;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Compares the failure path of the old exception-based validation and lookup with the result-based one the
+ * controller uses now. The "exception" benchmarks call the previous code in {@link LegacyCustomerValidation}
+ * and catch as the old controller did; both sides look customers up through the same empty repository.
+ */
+@State(Scope.Benchmark)
+public class ValidationFailureBenchmark {
+    private final Function<Long, Optional<Customer>> customerRepository = id -> Optional.empty();
+    private final CustomerValidator validator = new CustomerValidator();
+    private final LegacyCustomerValidation legacy = new LegacyCustomerValidation(customerRepository);
+    private final CustomerModel invalidModel = new CustomerModel(1L, "", "", "not-a-date");
+    private final Long missingId = 42L;
+
+    @Benchmark
+    public String invalidRequestWithException() {
+        try {
+            legacy.validateRequest(invalidModel);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String invalidRequestWithResult() {
+        ValidationResult result = validator.validateRequest(invalidModel);
+        return result.isValid() ? null : result.getMessage();
+    }
+
+    @Benchmark
+    public String missingCustomerWithException() {
+        try {
+            return legacy.findCustomerById(missingId).getName();
+        } catch (EntityNotFoundException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String missingCustomerWithOptional() {
+        Optional<Customer> customer = customerRepository.apply(missingId);
+        return customer.isEmpty() ? "Customer with id: " + missingId + " is not found" : customer.get().getName();
+    }
+}
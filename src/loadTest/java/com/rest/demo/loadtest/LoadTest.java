@@ -0,0 +1,124 @@
+package com.rest.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load generator for GET /customer/{id}.
+ * Each step keeps a fixed number of clients busy for the step duration and prints throughput,
+ * latency percentiles and the peak number of requests that were in flight at once.
+ * Run it once against the default thread-per-request mode and once with demo.threads.virtual.enabled=true.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int[] steps = Arrays.stream((args.length > 1 ? args[1] : "50,200,800,3200").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration stepDuration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 20);
+        long maxId = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s %8s %10s%n",
+                "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "peak", "errors", "rejected");
+        for (int concurrency : steps) {
+            StepResult result = runStep(client, baseUrl, concurrency, stepDuration,
+                    () -> "/customer/" + ThreadLocalRandom.current().nextLong(1, maxId + 1));
+            System.out.printf("%-12d %10d %10.0f %10.1f %10.1f %10.1f %10d %8d %10d%n",
+                    concurrency, result.latencies.length,
+                    result.latencies.length / (double) stepDuration.toSeconds(),
+                    percentile(result.latencies, 0.50), percentile(result.latencies, 0.99),
+                    percentile(result.latencies, 1.0), result.peakInFlight, result.errors, result.rejected);
+        }
+    }
+
+    static StepResult runStep(HttpClient client, String baseUrl, int concurrency, Duration duration, Supplier<String> paths)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get()))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 503 || response.statusCode() == 429) {
+                                rejected.incrementAndGet();
+                            } else if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> perWorker = new ArrayList<>(concurrency);
+        int total = 0;
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get();
+            perWorker.add(latencies);
+            total += latencies.length;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] workerLatencies : perWorker) {
+            System.arraycopy(workerLatencies, 0, latencies, offset, workerLatencies.length);
+            offset += workerLatencies.length;
+        }
+        Arrays.sort(latencies);
+        return new StepResult(latencies, peakInFlight.get(), errors.get(), rejected.get());
+    }
+
+    static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    record StepResult(long[] latencies, int peakInFlight, int errors, int rejected) {
+    }
+}
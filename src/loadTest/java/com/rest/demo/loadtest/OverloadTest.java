@@ -0,0 +1,85 @@
+package com.rest.demo.loadtest;
+
+import java.net.http.HttpClient;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shows what the concurrency limiter does to tail latency when PostgreSQL slows down.
+ * A fixed number of clients page through GET /customer?limit=20&afterId=... (uncached, so every request reaches the
+ * database) through three phases: baseline, an injected slowdown and recovery. The slowdown is a side connection
+ * that keeps taking an ACCESS EXCLUSIVE lock on customer for a short stall, so every query waits out part of one.
+ * Run it once with demo.limit.enabled=true and once with the limiter off, the default, and compare p99 in the
+ * slowdown phase.
+ */
+public final class OverloadTest {
+
+    private OverloadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String jdbcUrl = args.length > 1 ? args[1] : "jdbc:postgresql://localhost:5432/demo";
+        String username = args.length > 2 ? args[2] : "postgres";
+        String password = args.length > 3 ? args[3] : "admin";
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 400;
+        Duration phaseDuration = Duration.ofSeconds(args.length > 5 ? Long.parseLong(args[5]) : 20);
+        long maxId = args.length > 6 ? Long.parseLong(args[6]) : 1000;
+        long stallMillis = args.length > 7 ? Long.parseLong(args[7]) : 200;
+        long periodMillis = args.length > 8 ? Long.parseLong(args[8]) : 250;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %8s %10s%n",
+                "phase", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "rejected");
+        for (String phase : new String[]{"baseline", "slowdown", "recovery"}) {
+            Thread injector = phase.equals("slowdown")
+                    ? Thread.ofPlatform().daemon().start(() -> injectStalls(jdbcUrl, username, password, stallMillis, periodMillis))
+                    : null;
+            LoadTest.StepResult result = LoadTest.runStep(client, baseUrl, concurrency, phaseDuration,
+                    () -> "/customer?limit=20&afterId=" + ThreadLocalRandom.current().nextLong(0, maxId));
+            if (injector != null) {
+                injector.interrupt();
+                injector.join();
+            }
+            System.out.printf("%-10s %10d %10.0f %10.1f %10.1f %10.1f %8d %10d%n",
+                    phase, result.latencies().length,
+                    result.latencies().length / (double) phaseDuration.toSeconds(),
+                    LoadTest.percentile(result.latencies(), 0.50), LoadTest.percentile(result.latencies(), 0.99),
+                    LoadTest.percentile(result.latencies(), 1.0), result.errors(), result.rejected());
+        }
+    }
+
+    private static void injectStalls(String jdbcUrl, String username, String password, long stallMillis, long periodMillis) {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            while (!Thread.currentThread().isInterrupted()) {
+                statement.execute("LOCK TABLE customer IN ACCESS EXCLUSIVE MODE");
+                try {
+                    Thread.sleep(stallMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    connection.commit();
+                }
+                if (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        Thread.sleep(Math.max(0, periodMillis - stallMillis));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not inject the database slowdown", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.rest.demo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts DemoApplication repeatedly in each startup mode and reports time-to-first-request
+ * (process start until GET /customer answers 200) and the resident set size right after that request.
+ * Modes: the default context, the fast-startup profile (lazy initialization), the AppCDS archive, and both.
+ * The database is taken from the usual Spring configuration, e.g. SPRING_DATASOURCE_URL in the environment.
+ */
+public final class StartupBenchmark {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = args[0];
+        String classpath = args[1];
+        String archive = args[2];
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int port = args.length > 4 ? Integer.parseInt(args[4]) : 18080;
+
+        List<Mode> modes = List.of(
+                new Mode("default", List.of(), List.of()),
+                new Mode("lazy", List.of(), List.of("--spring.profiles.include=fast-startup")),
+                new Mode("cds", List.of("-XX:SharedArchiveFile=" + archive), List.of()),
+                new Mode("cds+lazy", List.of("-XX:SharedArchiveFile=" + archive), List.of("--spring.profiles.include=fast-startup")));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        System.out.printf("%-10s %6s %12s %12s %12s %12s%n", "mode", "runs", "p50 ttfr ms", "min ttfr ms", "max ttfr ms", "p50 rss MB");
+        for (Mode mode : modes) {
+            long[] timesToFirstRequest = new long[runs];
+            long[] residentSetSizes = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                RunResult result = start(client, java, classpath, port, mode);
+                timesToFirstRequest[run] = result.timeToFirstRequestMillis();
+                residentSetSizes[run] = result.residentSetKb();
+            }
+            Arrays.sort(timesToFirstRequest);
+            Arrays.sort(residentSetSizes);
+            System.out.printf("%-10s %6d %12d %12d %12d %12.1f%n", mode.name(), runs,
+                    timesToFirstRequest[runs / 2], timesToFirstRequest[0], timesToFirstRequest[runs - 1],
+                    residentSetSizes[runs / 2] / 1024.0);
+        }
+    }
+
+    private static RunResult start(HttpClient client, String java, String classpath, int port, Mode mode) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(mode.jvmArgs());
+        command.add("-cp");
+        command.add(classpath);
+        command.add("com.rest.demo.DemoApplication");
+        command.add("--server.port=" + port);
+        command.addAll(mode.applicationArgs());
+
+        HttpRequest firstRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/customer?page=1&pageSize=1"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue() + " before serving a request");
+                }
+                try {
+                    HttpResponse<Void> response = client.send(firstRequest, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return new RunResult(elapsed, residentSetKb(process.pid()));
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode.name() + " did not serve a request within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // VmRSS from procfs; reported as 0 where procfs is not available
+    private static long residentSetKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+            }
+        }
+        return 0;
+    }
+
+    private record Mode(String name, List<String> jvmArgs, List<String> applicationArgs) {
+    }
+
+    private record RunResult(long timeToFirstRequestMillis, long residentSetKb) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.rest.demo;
+
+import com.rest.demo.enums.ImportFormatEnum;
+import com.rest.demo.model.CustomerImportReport;
+import com.rest.demo.service.CustomerImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads a customer file from the command line instead of uploading it, for files too large to send over HTTP:
+ *
+ * <pre>java -jar demo.jar --spring.main.web-application-type=none --demo.import.file=customers.csv</pre>
+ *
+ * Files ending in .csv are read as CSV, anything else as NDJSON. Progress is logged after every chunk. To load a file
+ * again after a partial run, add --demo.import.skip-existing=true so the customers already loaded are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.import.file")
+public class CustomerImportRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportRunner.class);
+
+    private final CustomerImportService customerImportService;
+    private final Path file;
+
+    public CustomerImportRunner(CustomerImportService customerImportService, @Value("${demo.import.file}") String file) {
+        this.customerImportService = customerImportService;
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ImportFormatEnum format = file.getFileName().toString().toLowerCase().endsWith(".csv")
+                ? ImportFormatEnum.CSV : ImportFormatEnum.NDJSON;
+        CustomerImportReport report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = customerImportService.importCustomers(input, format, progress ->
+                    log.info("Import {} of {}: {} read, {} imported, {} duplicates, {} rejected, {} rows/s",
+                            progress.getState(), file, progress.getRead(), progress.getImported(),
+                            progress.getDuplicates(), progress.getRejected(), progress.getRowsPerSecond()));
+        }
+        if (report.getRejected() > 0) {
+            customerImportService.findRejects(report.getImportId())
+                    .ifPresent(rejects -> log.warn("{} records of {} were rejected, see {}", report.getRejected(), file, rejects));
+        }
+    }
+}
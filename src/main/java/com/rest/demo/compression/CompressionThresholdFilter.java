@@ -0,0 +1,192 @@
+package com.rest.demo.compression;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Makes server.compression.min-response-size hold for streamed responses. Tomcat only leaves a response uncompressed
+ * when its Content-Length is known and below the threshold, and the message converters write without one, so even a
+ * single customer was gzipped. The start of each body is held back here: a body that ends within the threshold goes out
+ * with its Content-Length, while a longer one is released once it outgrows the threshold and streams as before.
+ */
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+    private final int threshold;
+
+    public CompressionThresholdFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ThresholdResponse thresholdResponse = new ThresholdResponse(response, threshold);
+        // Not in a finally block: after an exception the held bytes give way to the error response
+        filterChain.doFilter(request, thresholdResponse);
+        if (request.isAsyncStarted()) {
+            // The handler keeps writing from another thread; what it wrote so far goes out now and the rest streams
+            thresholdResponse.release(false);
+        } else {
+            thresholdResponse.release(true);
+        }
+    }
+
+    private static final class ThresholdResponse extends HttpServletResponseWrapper {
+        private final int threshold;
+        private final ByteArrayOutputStream held;
+        private boolean released;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ThresholdResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.threshold = threshold;
+            this.held = new ByteArrayOutputStream(threshold);
+        }
+
+        // With complete, the held bytes are the whole body and their length is set before they are written
+        synchronized void release(boolean complete) throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (releaseHeld(complete) && !complete) {
+                // An async handler, such as an emitter, may have flushed them already and expects them sent
+                super.flushBuffer();
+            }
+        }
+
+        // Whether there were held bytes to write
+        private boolean releaseHeld(boolean complete) throws IOException {
+            if (released) {
+                return false;
+            }
+            released = true;
+            if (held.size() == 0) {
+                return false;
+            }
+            if (complete && !isCommitted()) {
+                setContentLength(held.size());
+            }
+            held.writeTo(super.getOutputStream());
+            held.reset();
+            return true;
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // A flush would commit the response before its length is known
+        @Override
+        public synchronized void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (released) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public synchronized void resetBuffer() {
+            held.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public synchronized void reset() {
+            held.reset();
+            super.reset();
+        }
+
+        @Override
+        public synchronized void sendError(int sc, String msg) throws IOException {
+            held.reset();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public synchronized void sendError(int sc) throws IOException {
+            held.reset();
+            super.sendError(sc);
+        }
+
+        private final class ThresholdOutputStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (ThresholdResponse.this) {
+                    if (!released && held.size() + len <= threshold) {
+                        held.write(b, off, len);
+                        return;
+                    }
+                    releaseHeld(false);
+                    ThresholdResponse.super.getOutputStream().write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (ThresholdResponse.this) {
+                    if (released) {
+                        ThresholdResponse.super.getOutputStream().flush();
+                    }
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (ThresholdResponse.this) {
+                    releaseHeld(true);
+                    ThresholdResponse.super.getOutputStream().close();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                synchronized (ThresholdResponse.this) {
+                    try {
+                        return !released || ThresholdResponse.super.getOutputStream().isReady();
+                    } catch (IOException e) {
+                        return false;
+                    }
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    ThresholdResponse.super.getOutputStream().setWriteListener(writeListener);
+                } catch (IOException e) {
+                    writeListener.onError(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.rest.demo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Caching wraps the transaction so puts and evictions only happen once the write has committed
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String CUSTOMER_CACHE = "customers";
+}
@@ -0,0 +1,28 @@
+package com.rest.demo.config;
+
+import com.rest.demo.compression.CompressionThresholdFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Holds small response bodies back until their length is known, so Tomcat's compression threshold applies to them
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CompressionThresholdFilter> compressionThresholdFilter(
+            ServerProperties serverProperties) {
+        int threshold = (int) serverProperties.getCompression().getMinResponseSize().toBytes();
+        FilterRegistrationBean<CompressionThresholdFilter> registration =
+                new FilterRegistrationBean<>(new CompressionThresholdFilter(threshold));
+        // Outermost, so it sees every body as it finally leaves the application
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,65 @@
+package com.rest.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.limit.AdaptiveConcurrencyLimiter;
+import com.rest.demo.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+
+// Adaptive load shedding for the customer API; the limits start from these values and then follow latency.
+// Opt-in with demo.limit.enabled=true until OverloadTest has been run against the target deployment.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "demo.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+    public static final String LIMIT_GAUGE = "customer.limit";
+    public static final String IN_FLIGHT_GAUGE = "customer.limit.inflight";
+    public static final String REJECTED_COUNTER = "customer.limit.rejected";
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readConcurrencyLimiter(MeterRegistry meterRegistry,
+                                                             @Value("${demo.limit.read.initial:100}") int initial,
+                                                             @Value("${demo.limit.read.min:10}") int min,
+                                                             @Value("${demo.limit.read.max:1000}") int max) {
+        return register(meterRegistry, new AdaptiveConcurrencyLimiter(initial, min, max), "read");
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeConcurrencyLimiter(MeterRegistry meterRegistry,
+                                                              @Value("${demo.limit.write.initial:50}") int initial,
+                                                              @Value("${demo.limit.write.min:5}") int min,
+                                                              @Value("${demo.limit.write.max:500}") int max) {
+        return register(meterRegistry, new AdaptiveConcurrencyLimiter(initial, min, max), "write");
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter readConcurrencyLimiter,
+                                                                                 AdaptiveConcurrencyLimiter writeConcurrencyLimiter,
+                                                                                 ObjectMapper objectMapper) throws IOException {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(readConcurrencyLimiter, writeConcurrencyLimiter, objectMapper));
+        // Actuator stays reachable while the API sheds load
+        registration.addUrlPatterns("/customer", "/customer/*");
+        // First in line, so a rejected request costs as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+
+    private AdaptiveConcurrencyLimiter register(MeterRegistry meterRegistry, AdaptiveConcurrencyLimiter limiter, String budget) {
+        Gauge.builder(LIMIT_GAUGE, limiter, AdaptiveConcurrencyLimiter::getLimit).tag("budget", budget).register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, limiter, AdaptiveConcurrencyLimiter::getInFlight).tag("budget", budget).register(meterRegistry);
+        FunctionCounter.builder(REJECTED_COUNTER, limiter, AdaptiveConcurrencyLimiter::getRejected).tag("budget", budget)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,42 @@
+package com.rest.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.idempotency.IdempotencyFilter;
+import com.rest.demo.idempotency.IdempotencyStore;
+import com.rest.demo.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Idempotency-Key handling for creating and updating customers; keys live in memory unless persistence is switched on
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "demo.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                                             @Value("${demo.idempotency.max-entries:100000}") long maxEntries,
+                                             @Value("${demo.idempotency.ttl:24h}") Duration ttl,
+                                             @Value("${demo.idempotency.persistent:false}") boolean persistent) {
+        return new IdempotencyStore(maxEntries, ttl, persistent ? idempotencyKeyRepository : null);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, objectMapper));
+        // POST and PUT /customer are createCustomer and updateCustomer
+        registration.addUrlPatterns("/customer");
+        // Ahead of load shedding, so a replay never takes a slot from requests that need the database
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 50);
+        return registration;
+    }
+}
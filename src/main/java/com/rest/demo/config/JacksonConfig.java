@@ -0,0 +1,22 @@
+package com.rest.demo.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.rest.demo.converter.CustomerJsonModule;
+import com.rest.demo.converter.CustomerJsonSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Boot registers every Module bean with the shared ObjectMapper used by MVC, WebFlux and the export writer
+@Configuration
+public class JacksonConfig {
+    // One instance, so its cache of encoded birthdates is shared by every mapper and the export writer
+    @Bean
+    public CustomerJsonSerializer customerJsonSerializer() {
+        return new CustomerJsonSerializer();
+    }
+
+    @Bean
+    public Module customerJsonModule(CustomerJsonSerializer customerJsonSerializer) {
+        return new CustomerJsonModule(customerJsonSerializer);
+    }
+}
@@ -0,0 +1,35 @@
+package com.rest.demo.config;
+
+import com.rest.demo.controller.CustomerController;
+import com.rest.demo.controller.ReactiveCustomerController;
+import com.rest.demo.service.CustomerService;
+import com.rest.demo.service.ReactiveCustomerService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+@Configuration
+public class StartupConfig {
+    // Under spring.main.lazy-initialization, keeps the beans every customer request needs eager so the
+    // first request after a scale-out does not pay for Hibernate bootstrap and controller wiring
+    @Bean
+    public static LazyInitializationExcludeFilter customerRequestPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class,
+                CustomerService.class, CustomerController.class,
+                ReactiveCustomerService.class, ReactiveCustomerController.class);
+    }
+
+    // Used by the cdsArchive training run: start up completely, then exit so the JVM dumps the class archive
+    @Bean
+    @ConditionalOnProperty("demo.startup.exit-on-ready")
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
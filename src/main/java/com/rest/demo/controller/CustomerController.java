@@ -2,112 +2,613 @@ package com.rest.demo.controller;
 
 import com.rest.demo.enums.ResponseEnum;
 import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.converter.CustomerExportWriter;
 import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.enums.ImportFormatEnum;
+import com.rest.demo.metrics.CustomerMetrics;
+import com.rest.demo.model.BatchItemResponse;
+import com.rest.demo.model.CustomerChange;
+import com.rest.demo.model.CustomerImportReport;
+import com.rest.demo.model.CustomerIngestStatus;
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerPatch;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
 import com.rest.demo.model.ErrorResponse;
+import com.rest.demo.service.CustomerChangeService;
+import com.rest.demo.service.CustomerImportService;
+import com.rest.demo.service.CustomerIngestService;
 import com.rest.demo.service.CustomerService;
 import com.rest.demo.validator.CustomerValidator;
+import com.rest.demo.validator.ValidationResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.persistence.EntityNotFoundException;
-import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/customer")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomerController {
+    private static final String VALIDATION_FAILED = "validation";
+    private static final String NOT_FOUND = "not_found";
+    private static final String PRECONDITION_FAILED = "precondition_failed";
+    private static final String QUEUE_FULL = "queue_full";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String TEXT_CSV = "text/csv";
+    // Yearly migration files take hours to upload and load
+    private static final long IMPORT_TIMEOUT_MILLIS = 24 * 3_600_000L;
+
     private final CustomerService customerService;
     private final CustomerConverter customerConverter;
     private final CustomerValidator customerValidator;
+    private final CustomerExportWriter customerExportWriter;
+    private final CustomerMetrics customerMetrics;
+    private final CustomerIngestService customerIngestService;
+    private final CustomerChangeService customerChangeService;
+    private final CustomerImportService customerImportService;
 
-    public CustomerController(CustomerService customerService, CustomerConverter customerConverter, CustomerValidator customerValidator) {
+    public CustomerController(CustomerService customerService, CustomerConverter customerConverter, CustomerValidator customerValidator,
+                              CustomerExportWriter customerExportWriter, CustomerMetrics customerMetrics,
+                              CustomerIngestService customerIngestService, CustomerChangeService customerChangeService,
+                              CustomerImportService customerImportService) {
         this.customerService = customerService;
         this.customerConverter = customerConverter;
         this.customerValidator = customerValidator;
+        this.customerExportWriter = customerExportWriter;
+        this.customerMetrics = customerMetrics;
+        this.customerIngestService = customerIngestService;
+        this.customerChangeService = customerChangeService;
+        this.customerImportService = customerImportService;
     }
 
     @PostMapping("")
-    public ResponseEntity<?> createCustomer(@RequestBody CustomerModel customerModel) {
+    public ResponseEntity<?> createCustomer(@RequestBody CustomerModel customerModel,
+                                            @RequestHeader(value = "Prefer", required = false) String prefer) {
         try {
-            customerValidator.validateRequest(customerModel);
+            ValidationResult validation = customerValidator.validateRequest(customerModel);
+            if (!validation.isValid()) {
+                return failed("createCustomer", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
             Customer customer = customerConverter.toEntity(customerModel);
+            // Ids are generated on create; one sent by the client would make a versioned customer look detached
+            customer.setId(null);
+            // Ingest clients opt in to write-behind: acknowledged once queued, written later by the batch flusher
+            if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+                Optional<CustomerIngestStatus> status = customerIngestService.enqueue(customer);
+                if (status.isEmpty()) {
+                    customerMetrics.recordFailure("createCustomer", QUEUE_FULL);
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), "Ingest queue is full, retry later"));
+                }
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .location(URI.create("/customer/ingest/" + status.get().getTrackingId()))
+                        .header("Preference-Applied", RESPOND_ASYNC)
+                        .body(customerConverter.toIngestResponse(ResponseEnum.SUCCESS.getMessage(), status.get()));
+            }
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(customerConverter
                             .toResponse(ResponseEnum.SUCCESS.getMessage(), customerService.addCustomer(customer)));
-        } catch (ValidationException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+            return failed("createCustomer", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> createCustomers(@RequestBody List<CustomerModel> customerModels) {
+        try {
+            ValidationResult batchValidation = customerValidator.validateBatch(customerModels);
+            if (!batchValidation.isValid()) {
+                return failed("createCustomers", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, batchValidation.getMessage());
+            }
+            BatchItemResponse[] results = new BatchItemResponse[customerModels.size()];
+            List<Customer> customers = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < customerModels.size(); i++) {
+                ValidationResult validation = customerValidator.validateRequest(customerModels.get(i));
+                if (validation.isValid()) {
+                    Customer customer = customerConverter.toEntity(customerModels.get(i));
+                    customer.setId(null);
+                    customers.add(customer);
+                    indexes.add(i);
+                } else {
+                    results[i] = new BatchItemResponse(i, ResponseEnum.FAILED.getMessage(), null, validation.getMessage());
+                }
+            }
+            List<Customer> savedCustomers = customers.isEmpty() ? customers : customerService.addCustomers(customers);
+            for (int i = 0; i < savedCustomers.size(); i++) {
+                int index = indexes.get(i);
+                results[index] = new BatchItemResponse(index, ResponseEnum.SUCCESS.getMessage(),
+                        customerConverter.toModel(savedCustomers.get(i)), null);
+            }
+            boolean allCreated = savedCustomers.size() == customerModels.size();
+            return ResponseEntity.status(allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                    .body(customerConverter.toBatchResponse(
+                            allCreated ? ResponseEnum.SUCCESS.getMessage() : ResponseEnum.FAILED.getMessage(),
+                            Arrays.asList(results)));
+        } catch (Exception e) {
+            return failed("createCustomers", HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
 
     @GetMapping("")
     public ResponseEntity<?> getAllCustomers(@RequestParam(defaultValue = "1") int page,
-                                          @RequestParam(defaultValue = "10") int pageSize) {
+                                          @RequestParam(defaultValue = "10") int pageSize,
+                                          @RequestParam(required = false) String fields) {
         try {
+            ValidationResult validation = customerValidator.validateFields(fields);
+            if (!validation.isValid()) {
+                return failed("getAllCustomers", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
             Pageable pageable = PageRequest.of(page-1, pageSize, Sort.by(Sort.Direction.ASC, "id"));
+            if (fields != null) {
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(customerConverter.toModelResponse(ResponseEnum.SUCCESS.getMessage(),
+                                customerService.findAllCustomerModels(pageable, customerConverter.toFields(fields))));
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter
+                            .toModelResponse(ResponseEnum.SUCCESS.getMessage(), customerService.findAllCustomerModels(pageable)));
+        } catch (Exception e) {
+            return failed("getAllCustomers", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @GetMapping(value = "", params = {"limit", "!ids"})
+    public ResponseEntity<?> getCustomersAfter(@RequestParam(required = false) Long afterId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam int limit,
+                                               @RequestParam(required = false) String fields) {
+        try {
+            ValidationResult validation = customerValidator.validateLimit(limit);
+            if (validation.isValid()) {
+                validation = customerValidator.validateFields(fields);
+            }
+            if (!validation.isValid()) {
+                return failed("getCustomersAfter", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
+            Long lastId = afterId;
+            if (cursor != null) {
+                Optional<Long> decodedCursor = customerConverter.decodeCursor(cursor);
+                if (decodedCursor.isEmpty()) {
+                    return failed("getCustomersAfter", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, "cursor is invalid");
+                }
+                lastId = decodedCursor.get();
+            }
+            if (fields != null) {
+                Set<CustomerFieldEnum> selected = customerConverter.toFields(fields);
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(customerConverter.toModelResponse(ResponseEnum.SUCCESS.getMessage(),
+                                customerService.findCustomerModelsAfter(lastId, limit, selected), limit, selected));
+            }
             return ResponseEntity.status(HttpStatus.OK)
                     .body(customerConverter
-                            .toResponse(ResponseEnum.SUCCESS.getMessage(), customerService.findAllCustomers(pageable)));
+                            .toEntityResponse(ResponseEnum.SUCCESS.getMessage(), customerService.findCustomersAfter(lastId, limit)));
+        } catch (Exception e) {
+            return failed("getCustomersAfter", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @GetMapping(value = "", params = {"ids", "!limit"})
+    public ResponseEntity<?> getCustomersByIds(@RequestParam List<Long> ids) {
+        return findCustomersByIds("getCustomersByIds", ids);
+    }
+
+    // Without this both mappings above would match ?ids=&limit= and the request would fail as ambiguous
+    @GetMapping(value = "", params = {"ids", "limit"})
+    public ResponseEntity<?> getCustomersByIdsWithLimit() {
+        return failed("getCustomersByIdsWithLimit", HttpStatus.BAD_REQUEST, VALIDATION_FAILED,
+                "ids cannot be combined with limit");
+    }
+
+    // Same as GET ?ids= for id lists that would not fit in a request line
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupCustomers(@RequestBody List<Long> ids) {
+        return findCustomersByIds("lookupCustomers", ids);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCustomers(@RequestParam(required = false) String name,
+                                             @RequestParam(required = false) String address,
+                                             @RequestParam(required = false) String birthdateFrom,
+                                             @RequestParam(required = false) String birthdateTo,
+                                             @RequestParam(defaultValue = "id") String sort,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            ValidationResult validation = customerValidator.validateSearch(name, address, birthdateFrom, birthdateTo, sort, limit);
+            if (!validation.isValid()) {
+                return failed("searchCustomers", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
+            CustomerSearchCriteria criteria = customerConverter.toSearchCriteria(name, address, birthdateFrom, birthdateTo, sort);
+            CustomerSearchCursor after = null;
+            if (cursor != null) {
+                Optional<CustomerSearchCursor> decodedCursor = customerConverter.decodeSearchCursor(cursor);
+                if (decodedCursor.isEmpty()) {
+                    return failed("searchCustomers", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, "cursor is invalid");
+                }
+                // Scores and ids order pages differently, so a cursor only continues the sort it came from
+                if (decodedCursor.get().isSortByRelevance() != criteria.isSortByRelevance()) {
+                    return failed("searchCustomers", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, "cursor does not match sort");
+                }
+                after = decodedCursor.get();
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter.toSearchResponse(ResponseEnum.SUCCESS.getMessage(),
+                            customerService.searchCustomers(criteria, after, limit), limit, criteria.isSortByRelevance()));
+        } catch (Exception e) {
+            return failed("searchCustomers", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @GetMapping("/ingest")
+    public ResponseEntity<?> getIngestStats() {
+        try {
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter.toIngestStatsResponse(ResponseEnum.SUCCESS.getMessage(), customerIngestService.getStats()));
+        } catch (Exception e) {
+            return failed("getIngestStats", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<?> getIngestStatus(@PathVariable("trackingId") String trackingId) {
+        try {
+            Optional<CustomerIngestStatus> status = customerIngestService.findStatus(trackingId);
+            if (status.isEmpty()) {
+                return failed("getIngestStatus", HttpStatus.NOT_FOUND, NOT_FOUND,
+                        "Ingest request with tracking id: " + trackingId + " is not found");
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter.toIngestResponse(ResponseEnum.SUCCESS.getMessage(), status.get()));
+        } catch (Exception e) {
+            return failed("getIngestStatus", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    // The body is streamed straight into the database. Run as an async request so an upload lasting hours neither hits
+    // the default async timeout nor counts as a latency sample for load shedding.
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public WebAsyncTask<ResponseEntity<?>> importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) {
+        ImportFormatEnum format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportFormatEnum.NDJSON : ImportFormatEnum.CSV;
+        return new WebAsyncTask<>(IMPORT_TIMEOUT_MILLIS, () -> {
+            try {
+                CustomerImportReport report = customerImportService.importCustomers(body, format, null);
+                return ResponseEntity.status(HttpStatus.OK)
+                        .location(URI.create("/customer/import/" + report.getImportId()))
+                        .body(customerConverter.toImportResponse(ResponseEnum.SUCCESS.getMessage(), report));
+            } catch (IllegalArgumentException e) {
+                return failed("importCustomers", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, e.getMessage());
+            } catch (Exception e) {
+                return failed("importCustomers", HttpStatus.INTERNAL_SERVER_ERROR, e);
+            }
+        });
+    }
+
+    // Running imports report their progress here as each chunk commits
+    @GetMapping("/import")
+    public ResponseEntity<?> getImportReports() {
+        try {
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter.toImportResponse(ResponseEnum.SUCCESS.getMessage(), customerImportService.findReports()));
+        } catch (Exception e) {
+            return failed("getImportReports", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<?> getImportReport(@PathVariable("importId") String importId) {
+        try {
+            Optional<CustomerImportReport> report = customerImportService.findReport(importId);
+            if (report.isEmpty()) {
+                return failed("getImportReport", HttpStatus.NOT_FOUND, NOT_FOUND, importNotFoundMessage(importId));
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter.toImportResponse(ResponseEnum.SUCCESS.getMessage(), report.get()));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+            return failed("getImportReport", HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
 
+    @GetMapping("/import/{importId}/rejects")
+    public ResponseEntity<?> getImportRejects(@PathVariable("importId") String importId) {
+        try {
+            Optional<Path> rejects = customerImportService.findRejects(importId);
+            if (rejects.isEmpty()) {
+                return failed("getImportRejects", HttpStatus.NOT_FOUND, NOT_FOUND, importNotFoundMessage(importId));
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(new FileSystemResource(rejects.get()));
+        } catch (Exception e) {
+            return failed("getImportRejects", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> exportCustomersAsNdjson(@RequestParam(required = false) String fields) {
+        ValidationResult validation = customerValidator.validateFields(fields);
+        if (!validation.isValid()) {
+            return failed("exportCustomersAsNdjson", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+        }
+        StreamingResponseBody body;
+        if (fields != null) {
+            Set<CustomerFieldEnum> selected = customerConverter.toFields(fields);
+            body = outputStream -> customerExportWriter.writeModelsAsNdjson(outputStream,
+                    consumer -> customerService.exportCustomerModels(selected, consumer));
+        } else {
+            body = outputStream -> customerExportWriter.writeNdjson(outputStream, customerService::exportCustomers);
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<?> exportCustomersAsCsv(@RequestParam(required = false) String fields) {
+        ValidationResult validation = customerValidator.validateFields(fields);
+        if (!validation.isValid()) {
+            return failed("exportCustomersAsCsv", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+        }
+        StreamingResponseBody body;
+        if (fields != null) {
+            Set<CustomerFieldEnum> selected = customerConverter.toFields(fields);
+            body = outputStream -> customerExportWriter.writeModelsAsCsv(outputStream, selected,
+                    consumer -> customerService.exportCustomerModels(selected, consumer));
+        } else {
+            body = outputStream -> customerExportWriter.writeCsv(outputStream, customerService::exportCustomers);
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
+    // Change feed from the customer_change outbox: resume with ?after=<seq>, or with Last-Event-ID when EventSource reconnects
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChangesAsEvents(@RequestParam(required = false) Long after,
+                                            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        subscribeChanges(emitter, lastEventId != null ? lastEventId : after, changes -> {
+            if (changes.isEmpty()) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            for (CustomerChange change : changes) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.getSeq()))
+                        .name(change.getOperation())
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+        });
+        return emitter;
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamChangesAsNdjson(@RequestParam(required = false) Long after) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        subscribeChanges(emitter, after, changes -> {
+            // NDJSON has no comment lines, so heartbeats are not written
+            if (!changes.isEmpty()) {
+                emitter.send(customerExportWriter.toNdjson(changes), MediaType.APPLICATION_OCTET_STREAM);
+            }
+        });
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCustomerById(@PathVariable("id") Long id) {
+    public ResponseEntity<?> getCustomerById(@PathVariable("id") Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            Customer customer = customerService.findCustomerById(id);
+            ValidationResult validation = customerValidator.validateFields(fields);
+            if (!validation.isValid()) {
+                return failed("getCustomerById", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
+            // The whole row comes from the customer cache, so fields only narrows what is written back
+            Optional<Customer> customer = customerService.findCustomerById(id);
+            if (customer.isEmpty()) {
+                return failed("getCustomerById", HttpStatus.NOT_FOUND, NOT_FOUND, notFoundMessage(id));
+            }
+            String eTag = customerConverter.toETag(customer.get(), accept);
+            // Answered before the response is converted, so an unchanged customer is never serialized
+            if (ifNoneMatch != null && eTagMatches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            if (fields != null) {
+                return ResponseEntity.status(HttpStatus.OK)
+                        .eTag(eTag)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer.get(),
+                                customerConverter.toFields(fields)));
+            }
             return ResponseEntity.status(HttpStatus.OK)
-                    .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer));
-        } catch (EntityNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(customerConverter.toEntityResponse(ResponseEnum.SUCCESS.getMessage(), customer.get()));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+            return failed("getCustomerById", HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
 
     @PutMapping("")
-    public ResponseEntity<?> updateCustomer(@RequestBody CustomerModel customerModel) {
+    public ResponseEntity<?> updateCustomer(@RequestBody CustomerModel customerModel,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            customerValidator.validateId(customerModel);
-            customerValidator.validateRequest(customerModel);
+            ValidationResult validation = customerValidator.validateId(customerModel);
+            if (validation.isValid()) {
+                validation = customerValidator.validateRequest(customerModel);
+            }
+            if (!validation.isValid()) {
+                return failed("updateCustomer", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
+            Long expectedVersion = null;
+            if (ifMatch != null && !ifMatch.trim().equals("*")) {
+                Optional<Long> version = customerConverter.parseETag(ifMatch);
+                if (version.isEmpty()) {
+                    return failed("updateCustomer", HttpStatus.PRECONDITION_FAILED, PRECONDITION_FAILED,
+                            modifiedMessage(customerModel.getId()));
+                }
+                expectedVersion = version.get();
+            }
             Customer customer = customerConverter.toEntity(customerModel);
-            Customer updatedCustomer = customerService.updateCustomer(customer);
+            Optional<Customer> updatedCustomer = customerService.updateCustomer(customer, expectedVersion);
+            if (updatedCustomer.isEmpty()) {
+                // Only a conditional update needs the extra lookup to tell a stale version from a missing customer
+                if (expectedVersion != null && customerService.customerExists(customerModel.getId())) {
+                    return failed("updateCustomer", HttpStatus.PRECONDITION_FAILED, PRECONDITION_FAILED,
+                            modifiedMessage(customerModel.getId()));
+                }
+                return failed("updateCustomer", HttpStatus.NOT_FOUND, NOT_FOUND, notFoundMessage(customerModel.getId()));
+            }
             return ResponseEntity.status(HttpStatus.OK)
-                    .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), updatedCustomer));
-        } catch (ValidationException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
-        } catch (EntityNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+                    .eTag(customerConverter.toETag(updatedCustomer.get(), accept))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), updatedCustomer.get()));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+            return failed("updateCustomer", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    // JSON Merge Patch: only the members present are validated and written, and a patch that changes nothing writes nothing
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchCustomer(@PathVariable("id") Long id, @RequestBody CustomerPatch patch,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            ValidationResult validation = customerValidator.validatePatch(patch);
+            if (!validation.isValid()) {
+                return failed("patchCustomer", HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
+            Long expectedVersion = null;
+            if (ifMatch != null && !ifMatch.trim().equals("*")) {
+                Optional<Long> version = customerConverter.parseETag(ifMatch);
+                if (version.isEmpty()) {
+                    return failed("patchCustomer", HttpStatus.PRECONDITION_FAILED, PRECONDITION_FAILED, modifiedMessage(id));
+                }
+                expectedVersion = version.get();
+            }
+            Optional<Customer> patchedCustomer = customerService.patchCustomer(customerConverter.toEntity(id, patch), expectedVersion);
+            if (patchedCustomer.isEmpty()) {
+                if (expectedVersion != null && customerService.customerExists(id)) {
+                    return failed("patchCustomer", HttpStatus.PRECONDITION_FAILED, PRECONDITION_FAILED, modifiedMessage(id));
+                }
+                return failed("patchCustomer", HttpStatus.NOT_FOUND, NOT_FOUND, notFoundMessage(id));
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .eTag(customerConverter.toETag(patchedCustomer.get(), accept))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), patchedCustomer.get()));
+        } catch (Exception e) {
+            return failed("patchCustomer", HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCustomer(@PathVariable("id") Long id) {
         try {
+            Optional<Customer> deletedCustomer = customerService.deleteCustomer(id);
+            if (deletedCustomer.isEmpty()) {
+                return failed("deleteCustomer", HttpStatus.NOT_FOUND, NOT_FOUND, notFoundMessage(id));
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), deletedCustomer.get()));
+        } catch (Exception e) {
+            return failed("deleteCustomer", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private ResponseEntity<?> findCustomersByIds(String operation, List<Long> ids) {
+        try {
+            ValidationResult validation = customerValidator.validateIds(ids);
+            if (!validation.isValid()) {
+                return failed(operation, HttpStatus.BAD_REQUEST, VALIDATION_FAILED, validation.getMessage());
+            }
             return ResponseEntity.status(HttpStatus.OK)
-                    .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customerService.deleteCustomer(id)));
-        } catch (EntityNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+                    .body(customerConverter
+                            .toLookupResponse(ResponseEnum.SUCCESS.getMessage(), ids, customerService.findCustomersByIds(ids)));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), e.getMessage()));
+            return failed(operation, HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private void subscribeChanges(ResponseBodyEmitter emitter, Long after, CustomerChangeService.ChangeSink sink) {
+        CustomerChangeService.Subscription subscription = customerChangeService.subscribe(after, new CustomerChangeService.ChangeSink() {
+            @Override
+            public void send(List<CustomerChange> changes) throws IOException {
+                sink.send(changes);
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+    }
+
+    private String notFoundMessage(Long id) {
+        return "Customer with id: " + id + " is not found";
+    }
+
+    private String importNotFoundMessage(String importId) {
+        return "Import with id: " + importId + " is not found";
+    }
+
+    private String modifiedMessage(Long id) {
+        return "Customer with id: " + id + " has been modified since it was read";
+    }
+
+    // Weak comparison as If-None-Match requires: W/ prefixes are ignored and * matches any current version
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    private ResponseEntity<ErrorResponse> failed(String operation, HttpStatus status, String reason, String message) {
+        customerMetrics.recordFailure(operation, reason);
+        return ResponseEntity.status(status)
+                .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), message));
+    }
+
+    private ResponseEntity<ErrorResponse> failed(String operation, HttpStatus status, Exception e) {
+        return failed(operation, status, e.getClass().getSimpleName(), e.getMessage());
     }
 }
@@ -0,0 +1,110 @@
+package com.rest.demo.controller;
+
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.ErrorResponse;
+import com.rest.demo.service.ReactiveCustomerService;
+import com.rest.demo.validator.CustomerValidator;
+import com.rest.demo.validator.ValidationResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// WebFlux counterpart of CustomerController, active when spring.main.web-application-type=reactive (the "reactive" profile)
+@RestController
+@RequestMapping("/customer")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerController {
+    private final ReactiveCustomerService customerService;
+    private final CustomerConverter customerConverter;
+    private final CustomerValidator customerValidator;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService, CustomerConverter customerConverter, CustomerValidator customerValidator) {
+        this.customerService = customerService;
+        this.customerConverter = customerConverter;
+        this.customerValidator = customerValidator;
+    }
+
+    @PostMapping("")
+    public Mono<ResponseEntity<?>> createCustomer(@RequestBody CustomerModel customerModel) {
+        ValidationResult validation = customerValidator.validateRequest(customerModel);
+        if (!validation.isValid()) {
+            return failed(HttpStatus.BAD_REQUEST, validation.getMessage());
+        }
+        return Mono.fromCallable(() -> customerConverter.toReactiveEntity(customerModel))
+                .flatMap(customerService::addCustomer)
+                .<ResponseEntity<?>>map(customer -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)))
+                .onErrorResume(this::failed);
+    }
+
+    @GetMapping("")
+    public Mono<ResponseEntity<?>> getAllCustomers(@RequestParam(defaultValue = "1") int page,
+                                                   @RequestParam(defaultValue = "10") int pageSize) {
+        return Mono.fromCallable(() -> PageRequest.of(page-1, pageSize, Sort.by(Sort.Direction.ASC, "id")))
+                .flatMap(pageable -> customerService.findAllCustomers(pageable).collectList())
+                .<ResponseEntity<?>>map(customers -> ResponseEntity.status(HttpStatus.OK)
+                        .body(customerConverter.toReactiveResponse(ResponseEnum.SUCCESS.getMessage(), customers)))
+                .onErrorResume(this::failed);
+    }
+
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CustomerModel> streamCustomers() {
+        return customerService.streamAllCustomers().map(customerConverter::toModel);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getCustomerById(@PathVariable("id") Long id) {
+        return customerService.findCustomerById(id)
+                .<ResponseEntity<?>>map(customer -> ResponseEntity.status(HttpStatus.OK)
+                        .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)))
+                .switchIfEmpty(Mono.defer(() -> failed(HttpStatus.NOT_FOUND, notFoundMessage(id))))
+                .onErrorResume(this::failed);
+    }
+
+    @PutMapping("")
+    public Mono<ResponseEntity<?>> updateCustomer(@RequestBody CustomerModel customerModel) {
+        ValidationResult validation = customerValidator.validateId(customerModel);
+        if (validation.isValid()) {
+            validation = customerValidator.validateRequest(customerModel);
+        }
+        if (!validation.isValid()) {
+            return failed(HttpStatus.BAD_REQUEST, validation.getMessage());
+        }
+        return Mono.fromCallable(() -> customerConverter.toReactiveEntity(customerModel))
+                .flatMap(customerService::updateCustomer)
+                .<ResponseEntity<?>>map(customer -> ResponseEntity.status(HttpStatus.OK)
+                        .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)))
+                .switchIfEmpty(Mono.defer(() -> failed(HttpStatus.NOT_FOUND, notFoundMessage(customerModel.getId()))))
+                .onErrorResume(this::failed);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<?>> deleteCustomer(@PathVariable("id") Long id) {
+        return customerService.deleteCustomer(id)
+                .<ResponseEntity<?>>map(customer -> ResponseEntity.status(HttpStatus.OK)
+                        .body(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)))
+                .switchIfEmpty(Mono.defer(() -> failed(HttpStatus.NOT_FOUND, notFoundMessage(id))))
+                .onErrorResume(this::failed);
+    }
+
+    private String notFoundMessage(Long id) {
+        return "Customer with id: " + id + " is not found";
+    }
+
+    private Mono<ResponseEntity<?>> failed(HttpStatus status, String message) {
+        return Mono.<ResponseEntity<?>>just(ResponseEntity.status(status)
+                .body(new ErrorResponse(ResponseEnum.FAILED.getMessage(), message)));
+    }
+
+    private Mono<ResponseEntity<?>> failed(Throwable e) {
+        return failed(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+}
@@ -1,19 +1,57 @@
 package com.rest.demo.converter;
 
 import com.rest.demo.entity.Customer;
+import com.rest.demo.entity.ReactiveCustomer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.BatchItemResponse;
+import com.rest.demo.model.CustomerImportReport;
+import com.rest.demo.model.CustomerIngestStats;
+import com.rest.demo.model.CustomerIngestStatus;
+import com.rest.demo.model.CustomerLookupModel;
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerPatch;
 import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
+import com.rest.demo.model.CustomerSearchHit;
+import com.rest.demo.model.SparseCustomerModel;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 public class CustomerConverter {
+    private static final String RELEVANCE_SORT = "relevance";
+    private static final String ID_SORT = "id";
+    // ETag suffix per encoding, in the order of the message converters; JSON tags keep their plain version
+    private static final Map<MediaType, String> REPRESENTATIONS = new LinkedHashMap<>();
+
+    static {
+        REPRESENTATIONS.put(MediaType.APPLICATION_JSON, "");
+        REPRESENTATIONS.put(new MediaType("application", "x-jackson-smile"), "-smile");
+        REPRESENTATIONS.put(MediaType.APPLICATION_CBOR, "-cbor");
+        REPRESENTATIONS.put(CustomerProtobufHttpMessageConverter.PROTOBUF, "-protobuf");
+    }
+
     private final String pattern = "yyyy-MM-dd";
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(pattern);
+    private final String cursorPrefix = "id:";
+    private final String searchCursorPrefix = "rank:";
 
     public Customer toEntity(CustomerModel model) {
         Customer customer = new Customer();
@@ -26,6 +64,17 @@ public class CustomerConverter {
         return customer;
     }
 
+    // Fields left out of the patch stay null, which the patch update reads as "leave the column alone"
+    public Customer toEntity(Long id, CustomerPatch patch) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName(patch.getName());
+        customer.setAddress(patch.getAddress());
+        customer.setBirthdate(patch.getBirthdate() != null ? LocalDate.parse(patch.getBirthdate(), dateFormatter) : null);
+
+        return customer;
+    }
+
     public CustomerModel toModel(Customer customer) {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setId(customer.getId());
@@ -50,4 +99,312 @@ public class CustomerConverter {
         customerResponse.setData(customer.stream().map(this::toModel).collect(Collectors.toList()));
         return customerResponse;
     }
+
+    // Entity-backed responses skip the CustomerModel copy; CustomerJsonSerializer renders them in the model's JSON shape
+    public CustomerResponse<Customer> toEntityResponse(String status, Customer customer) {
+        CustomerResponse<Customer> customerResponse = new CustomerResponse<Customer>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(customer);
+        return customerResponse;
+    }
+
+    public CustomerResponse<List<Customer>> toEntityResponse(String status, Slice<Customer> customer) {
+        List<Customer> content = customer.getContent();
+        CustomerResponse<List<Customer>> customerResponse = new CustomerResponse<List<Customer>>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(content);
+        if (customer.hasNext() && !content.isEmpty()) {
+            customerResponse.setNext(encodeCursor(content.get(content.size() - 1).getId()));
+        }
+        return customerResponse;
+    }
+
+    public CustomerResponse<List<CustomerModel>> toModelResponse(String status, List<CustomerModel> customerModels) {
+        CustomerResponse<List<CustomerModel>> customerResponse = new CustomerResponse<List<CustomerModel>>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(customerModels);
+        return customerResponse;
+    }
+
+    // Models come one past the limit, as the keyset query fetches them; the id is always loaded for the cursor
+    public CustomerResponse<List<CustomerModel>> toModelResponse(String status, List<CustomerModel> customerModels, int limit,
+                                                                 Set<CustomerFieldEnum> fields) {
+        List<CustomerModel> content = customerModels.size() > limit ? customerModels.subList(0, limit) : customerModels;
+        CustomerResponse<List<CustomerModel>> customerResponse = toModelResponse(status, content);
+        if (customerModels.size() > limit && !content.isEmpty()) {
+            customerResponse.setNext(encodeCursor(content.get(content.size() - 1).getId()));
+        }
+        if (!fields.contains(CustomerFieldEnum.ID)) {
+            content.forEach(model -> model.setId(null));
+        }
+        return customerResponse;
+    }
+
+    public CustomerResponse<CustomerModel> toResponse(String status, Customer customer, Set<CustomerFieldEnum> fields) {
+        CustomerModel model = toModel(customer);
+        CustomerResponse<CustomerModel> customerResponse = new CustomerResponse<CustomerModel>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(new SparseCustomerModel(
+                fields.contains(CustomerFieldEnum.ID) ? model.getId() : null,
+                fields.contains(CustomerFieldEnum.NAME) ? model.getName() : null,
+                fields.contains(CustomerFieldEnum.ADDRESS) ? model.getAddress() : null,
+                fields.contains(CustomerFieldEnum.BIRTHDATE) ? model.getBirthdate() : null));
+        return customerResponse;
+    }
+
+    // Expects input accepted by CustomerValidator.validateFields; null selects every field
+    public Set<CustomerFieldEnum> toFields(String fields) {
+        if (fields == null) {
+            return EnumSet.allOf(CustomerFieldEnum.class);
+        }
+        Set<CustomerFieldEnum> selected = EnumSet.noneOf(CustomerFieldEnum.class);
+        for (String field : fields.split(",")) {
+            for (CustomerFieldEnum candidate : CustomerFieldEnum.values()) {
+                if (candidate.getField().equals(field.trim())) {
+                    selected.add(candidate);
+                }
+            }
+        }
+        return selected;
+    }
+
+    public CustomerResponse<List<CustomerModel>> toResponse(String status, Slice<Customer> customer) {
+        List<Customer> content = customer.getContent();
+        CustomerResponse<List<CustomerModel>> customerResponse = toResponse(status, content);
+        if (customer.hasNext() && !content.isEmpty()) {
+            customerResponse.setNext(encodeCursor(content.get(content.size() - 1).getId()));
+        }
+        return customerResponse;
+    }
+
+    public CustomerResponse<CustomerLookupModel> toLookupResponse(String status, List<Long> ids, Map<Long, Customer> customers) {
+        List<CustomerModel> found = new ArrayList<>(customers.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                found.add(toModel(customer));
+            } else {
+                missing.add(id);
+            }
+        }
+        CustomerResponse<CustomerLookupModel> customerResponse = new CustomerResponse<CustomerLookupModel>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(new CustomerLookupModel(found, missing));
+        return customerResponse;
+    }
+
+    public CustomerSearchCriteria toSearchCriteria(String name, String address, String birthdateFrom, String birthdateTo,
+                                                   String sort) {
+        return new CustomerSearchCriteria(
+                emptyToNull(name),
+                emptyToNull(address),
+                birthdateFrom == null || birthdateFrom.isEmpty() ? null : LocalDate.parse(birthdateFrom, dateFormatter),
+                birthdateTo == null || birthdateTo.isEmpty() ? null : LocalDate.parse(birthdateTo, dateFormatter),
+                RELEVANCE_SORT.equals(sort));
+    }
+
+    // Expects up to limit + 1 hits; the extra one only signals that another page exists
+    public CustomerResponse<List<CustomerModel>> toSearchResponse(String status, List<CustomerSearchHit> hits, int limit,
+                                                                  boolean sortByRelevance) {
+        List<CustomerSearchHit> page = hits.size() > limit ? hits.subList(0, limit) : hits;
+        CustomerResponse<List<CustomerModel>> customerResponse = new CustomerResponse<List<CustomerModel>>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(page.stream().map(CustomerSearchHit::getCustomer).collect(Collectors.toList()));
+        if (hits.size() > limit && !page.isEmpty()) {
+            CustomerSearchHit last = page.get(page.size() - 1);
+            customerResponse.setNext(encodeSearchCursor(new CustomerSearchCursor(last.getScore(), last.getCustomer().getId(),
+                    sortByRelevance)));
+        }
+        return customerResponse;
+    }
+
+    public ReactiveCustomer toReactiveEntity(CustomerModel model) {
+        ReactiveCustomer customer = new ReactiveCustomer();
+        customer.setId(model.getId());
+        customer.setName(model.getName());
+        customer.setAddress(model.getAddress());
+        customer.setBirthdate(LocalDate.parse(model.getBirthdate(), dateFormatter));
+
+        return customer;
+    }
+
+    public CustomerModel toModel(ReactiveCustomer customer) {
+        return new CustomerModel(customer.getId(), customer.getName(), customer.getAddress(),
+                customer.getBirthdate().format(dateFormatter));
+    }
+
+    public CustomerResponse<CustomerModel> toResponse(String status, ReactiveCustomer customer) {
+        CustomerResponse<CustomerModel> customerResponse = new CustomerResponse<CustomerModel>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(toModel(customer));
+        return customerResponse;
+    }
+
+    public CustomerResponse<List<CustomerModel>> toReactiveResponse(String status, List<ReactiveCustomer> customer) {
+        CustomerResponse<List<CustomerModel>> customerResponse = new CustomerResponse<List<CustomerModel>>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(customer.stream().map(this::toModel).collect(Collectors.toList()));
+        return customerResponse;
+    }
+
+    public CustomerResponse<CustomerIngestStatus> toIngestResponse(String status, CustomerIngestStatus ingestStatus) {
+        CustomerResponse<CustomerIngestStatus> customerResponse = new CustomerResponse<CustomerIngestStatus>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(ingestStatus);
+        return customerResponse;
+    }
+
+    public CustomerResponse<CustomerIngestStats> toIngestStatsResponse(String status, CustomerIngestStats stats) {
+        CustomerResponse<CustomerIngestStats> customerResponse = new CustomerResponse<CustomerIngestStats>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(stats);
+        return customerResponse;
+    }
+
+    public CustomerResponse<CustomerImportReport> toImportResponse(String status, CustomerImportReport report) {
+        CustomerResponse<CustomerImportReport> customerResponse = new CustomerResponse<CustomerImportReport>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(report);
+        return customerResponse;
+    }
+
+    public CustomerResponse<List<CustomerImportReport>> toImportResponse(String status, List<CustomerImportReport> reports) {
+        CustomerResponse<List<CustomerImportReport>> customerResponse = new CustomerResponse<List<CustomerImportReport>>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(reports);
+        return customerResponse;
+    }
+
+    public CustomerResponse<List<BatchItemResponse>> toBatchResponse(String status, List<BatchItemResponse> items) {
+        CustomerResponse<List<BatchItemResponse>> customerResponse = new CustomerResponse<List<BatchItemResponse>>();
+        customerResponse.setStatus(status);
+        customerResponse.setData(items);
+        return customerResponse;
+    }
+
+    // Strong ETag derived from the optimistic-locking version. JSON, Smile, CBOR and protobuf bodies differ byte for
+    // byte, so each encoding the Accept header selects is its own representation with its own tag.
+    public String toETag(Customer customer, String accept) {
+        return "\"" + customer.getVersion() + representation(accept) + "\"";
+    }
+
+    // The version behind a tag of any representation, as If-Match preconditions apply to the customer itself
+    public Optional<Long> parseETag(String eTag) {
+        String value = eTag.trim();
+        if (value.length() < 3 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return Optional.empty();
+        }
+        int end = value.length() - 1;
+        for (String suffix : REPRESENTATIONS.values()) {
+            if (!suffix.isEmpty() && value.startsWith(suffix, end - suffix.length())) {
+                end -= suffix.length();
+                break;
+            }
+        }
+        return parseId(value, 1, end);
+    }
+
+    public String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((cursorPrefix + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Optional<Long> decodeCursor(String cursor) {
+        if (!isUrlSafeBase64(cursor)) {
+            return Optional.empty();
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(cursorPrefix)) {
+            return Optional.empty();
+        }
+        return parseId(decoded, cursorPrefix.length(), decoded.length());
+    }
+
+    public String encodeSearchCursor(CustomerSearchCursor cursor) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((searchCursorPrefix + (cursor.isSortByRelevance() ? RELEVANCE_SORT : ID_SORT) + ":"
+                        + cursor.getScore() + ":" + cursor.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Optional<CustomerSearchCursor> decodeSearchCursor(String cursor) {
+        if (!isUrlSafeBase64(cursor)) {
+            return Optional.empty();
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sortSeparator = decoded.indexOf(':', searchCursorPrefix.length());
+        int separator = sortSeparator < 0 ? -1 : decoded.indexOf(':', sortSeparator + 1);
+        if (!decoded.startsWith(searchCursorPrefix) || separator < 0) {
+            return Optional.empty();
+        }
+        String sort = decoded.substring(searchCursorPrefix.length(), sortSeparator);
+        if (!sort.equals(RELEVANCE_SORT) && !sort.equals(ID_SORT)) {
+            return Optional.empty();
+        }
+        Optional<Long> score = parseId(decoded, sortSeparator + 1, separator);
+        Optional<Long> id = parseId(decoded, separator + 1, decoded.length());
+        if (score.isEmpty() || id.isEmpty() || score.get() > Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        return Optional.of(new CustomerSearchCursor(score.get().intValue(), id.get(), sort.equals(RELEVANCE_SORT)));
+    }
+
+    private Optional<Long> parseId(String value, int from, int to) {
+        if (from >= to) {
+            return Optional.empty();
+        }
+        long id = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9' || id > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return Optional.empty();
+            }
+            id = id * 10 + (c - '0');
+        }
+        return Optional.of(id);
+    }
+
+    // The encoding the message converters write for accept: the most preferred acceptable type that one of them
+    // produces, trying them in the order they are registered. Anything unparseable falls back to JSON.
+    private String representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (Map.Entry<MediaType, String> representation : REPRESENTATIONS.entrySet()) {
+                if (mediaType.isCompatibleWith(representation.getKey())) {
+                    return representation.getValue();
+                }
+            }
+        }
+        return "";
+    }
+
+    private String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private boolean isUrlSafeBase64(String value) {
+        if (value == null || value.isEmpty() || value.length() % 4 == 1) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
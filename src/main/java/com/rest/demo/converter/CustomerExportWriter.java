@@ -0,0 +1,164 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.CustomerChange;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.SparseCustomerModel;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Component
+public class CustomerExportWriter {
+    public static final String CSV_HEADER = "id,name,address,birthdate";
+    private final ObjectMapper objectMapper;
+    // Sparse exports write SparseCustomerModels, whose unselected fields are null and left out; the stream is flushed
+    // once at the end
+    private final ObjectWriter modelWriter;
+    private final CustomerJsonSerializer customerSerializer;
+    private final CustomerConverter customerConverter;
+
+    public CustomerExportWriter(ObjectMapper objectMapper, CustomerJsonSerializer customerSerializer,
+                                CustomerConverter customerConverter) {
+        this.objectMapper = objectMapper;
+        this.customerSerializer = customerSerializer;
+        this.modelWriter = objectMapper.writerFor(SparseCustomerModel.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.customerConverter = customerConverter;
+    }
+
+    public void writeNdjson(OutputStream outputStream, Consumer<Consumer<Customer>> source) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        source.accept(customer -> {
+            try {
+                customerSerializer.serialize(customer, generator, null);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    // One buffer per batch of changes, so a change feed batch goes out as a single write
+    public byte[] toNdjson(List<CustomerChange> changes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(changes.size() * 128);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        for (CustomerChange change : changes) {
+            objectMapper.writeValue(generator, change);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        return outputStream.toByteArray();
+    }
+
+    public void writeCsv(OutputStream outputStream, Consumer<Consumer<Customer>> source) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        source.accept(customer -> {
+            try {
+                CustomerModel model = customerConverter.toModel(customer);
+                writer.write(String.valueOf(model.getId()));
+                writer.write(',');
+                writeCsvField(writer, model.getName());
+                writer.write(',');
+                writeCsvField(writer, model.getAddress());
+                writer.write(',');
+                writer.write(model.getBirthdate());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    public void writeModelsAsNdjson(OutputStream outputStream, Consumer<Consumer<CustomerModel>> source) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        source.accept(model -> {
+            try {
+                modelWriter.writeValue(generator, model);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    // Columns follow the order of CSV_HEADER, whatever order they were asked for in
+    public void writeModelsAsCsv(OutputStream outputStream, Set<CustomerFieldEnum> fields,
+                                 Consumer<Consumer<CustomerModel>> source) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        StringBuilder header = new StringBuilder();
+        for (CustomerFieldEnum field : fields) {
+            if (header.length() > 0) {
+                header.append(',');
+            }
+            header.append(field.getField());
+        }
+        writer.write(header.toString());
+        writer.write('\n');
+        source.accept(model -> {
+            try {
+                boolean first = true;
+                for (CustomerFieldEnum field : fields) {
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    first = false;
+                    switch (field) {
+                        case ID:
+                            writer.write(String.valueOf(model.getId()));
+                            break;
+                        case NAME:
+                            writeCsvField(writer, model.getName());
+                            break;
+                        case ADDRESS:
+                            writeCsvField(writer, model.getAddress());
+                            break;
+                        case BIRTHDATE:
+                            writeCsvField(writer, model.getBirthdate());
+                            break;
+                    }
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,238 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.enums.ImportFormatEnum;
+import com.rest.demo.model.CustomerModel;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an import file one record at a time, in the formats /customer/export writes: CSV with a header row, or one
+ * JSON customer per line. A record that cannot be read comes back with an error instead of failing the whole file;
+ * only a CSV header without the required columns is fatal. The id column or member is ignored.
+ */
+public class CustomerImportReader implements Closeable {
+    // Longer records are rejected, and only this much of them is kept for the reject file
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "address", "birthdate");
+
+    private final BufferedReader reader;
+    private final ImportFormatEnum format;
+    private final ObjectMapper objectMapper;
+    private final StringBuilder raw = new StringBuilder();
+    private int[] columns;
+    private int columnCount;
+    private long line;
+
+    public CustomerImportReader(InputStream input, ImportFormatEnum format, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == ImportFormatEnum.CSV) {
+            readHeader();
+        }
+    }
+
+    // Null at the end of the input
+    public ImportRecord next() throws IOException {
+        return format == ImportFormatEnum.CSV ? nextCsv() : nextNdjson();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readCsvRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        columnCount = header.size();
+        columns = new int[REQUIRED_COLUMNS.size()];
+        for (int i = 0; i < REQUIRED_COLUMNS.size(); i++) {
+            columns[i] = header.indexOf(REQUIRED_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("CSV header must contain " + String.join(", ", REQUIRED_COLUMNS));
+            }
+        }
+    }
+
+    private ImportRecord nextCsv() throws IOException {
+        while (true) {
+            long start = line + 1;
+            List<String> fields;
+            try {
+                fields = readCsvRecord();
+            } catch (MalformedRecordException e) {
+                return new ImportRecord(start, null, e.getMessage(), rawRecord());
+            }
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (fields.size() != columnCount) {
+                return new ImportRecord(start, null,
+                        "expected " + columnCount + " fields but found " + fields.size(), rawRecord());
+            }
+            CustomerModel model = new CustomerModel(null, fields.get(columns[0]), fields.get(columns[1]), fields.get(columns[2]));
+            return new ImportRecord(start, model, null, rawRecord());
+        }
+    }
+
+    // RFC 4180 fields; quoted fields may hold commas, quotes and line breaks. Null at the end of the input.
+    private List<String> readCsvRecord() throws IOException {
+        raw.setLength(0);
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean tooLong = false;
+        while (true) {
+            if (c < 0) {
+                if (quoted) {
+                    throw new MalformedRecordException("unterminated quoted field");
+                }
+                break;
+            }
+            if (raw.length() >= MAX_RECORD_CHARS) {
+                tooLong = true;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            if (tooLong) {
+                // Drain the rest of the physical line so the next record starts cleanly
+                skipLine(c);
+                throw new MalformedRecordException("record is longer than " + MAX_RECORD_CHARS + " characters");
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private ImportRecord nextNdjson() throws IOException {
+        while (true) {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            String record = text.length() > MAX_RECORD_CHARS ? text.substring(0, MAX_RECORD_CHARS) : text;
+            if (text.length() > MAX_RECORD_CHARS) {
+                return new ImportRecord(line, null, "record is longer than " + MAX_RECORD_CHARS + " characters", record);
+            }
+            try {
+                CustomerModel model = objectMapper.readValue(text, CustomerModel.class);
+                if (model == null) {
+                    return new ImportRecord(line, null, "record must be a JSON object", record);
+                }
+                model.setId(null);
+                return new ImportRecord(line, model, null, record);
+            } catch (JsonProcessingException e) {
+                return new ImportRecord(line, null, "malformed JSON: " + e.getOriginalMessage(), record);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        if (c >= 0 && raw.length() < MAX_RECORD_CHARS) {
+            raw.append((char) c);
+        }
+        return c;
+    }
+
+    private String rawRecord() {
+        int end = raw.length();
+        while (end > 0 && (raw.charAt(end - 1) == '\n' || raw.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return raw.substring(0, end);
+    }
+
+    private void skipLine(int last) throws IOException {
+        int c = last;
+        while (c >= 0 && c != '\n') {
+            c = read();
+        }
+    }
+
+    public static final class ImportRecord {
+        private final long line;
+        private final CustomerModel model;
+        private final String error;
+        private final String raw;
+
+        ImportRecord(long line, CustomerModel model, String error, String raw) {
+            this.line = line;
+            this.model = model;
+            this.error = error;
+            this.raw = raw;
+        }
+
+        // Line of the input the record starts on, counting from 1
+        public long getLine() {
+            return line;
+        }
+
+        // Null when the record could not be read
+        public CustomerModel getModel() {
+            return model;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getRaw() {
+            return raw;
+        }
+    }
+
+    private static final class MalformedRecordException extends IOException {
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
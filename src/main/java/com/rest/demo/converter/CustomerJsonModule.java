@@ -0,0 +1,50 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.ErrorResponse;
+
+import java.util.List;
+
+// Customers are written by CustomerJsonSerializer wherever they appear. Envelopes such as CustomerResponse keep the
+// default bean serialization, so their fields follow the classes; only their status property is swapped for
+// ResponseStatusJsonSerializer.
+public class CustomerJsonModule extends SimpleModule {
+    private static final String STATUS = "status";
+
+    public CustomerJsonModule() {
+        this(new CustomerJsonSerializer());
+    }
+
+    @SuppressWarnings("unchecked")
+    public CustomerJsonModule(CustomerJsonSerializer customerSerializer) {
+        super("CustomerJsonModule");
+        addSerializer(Customer.class, customerSerializer);
+        JsonSerializer<Object> statusSerializer =
+                (JsonSerializer<Object>) (JsonSerializer<?>) new ResponseStatusJsonSerializer();
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                Class<?> beanClass = beanDesc.getBeanClass();
+                if (!CustomerResponse.class.isAssignableFrom(beanClass)
+                        && !ErrorResponse.class.isAssignableFrom(beanClass)) {
+                    return beanProperties;
+                }
+                for (BeanPropertyWriter property : beanProperties) {
+                    if (property.getName().equals(STATUS) && property.getType().hasRawClass(String.class)
+                            && !property.hasSerializer()) {
+                        property.assignSerializer(statusSerializer);
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+}
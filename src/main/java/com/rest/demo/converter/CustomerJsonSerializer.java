@@ -0,0 +1,73 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rest.demo.entity.Customer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link Customer} straight to the generator in the same shape Jackson gives {@code CustomerModel}:
+ * {@code {"id":..,"name":..,"address":..,"birthdate":"yyyy-MM-dd"}}. Field names are pre-encoded and the
+ * birthdates of the common range are encoded once and reused, so no model copy or date String is allocated.
+ */
+public class CustomerJsonSerializer extends StdSerializer<Customer> {
+    static final SerializableString ID = new SerializedString("id");
+    static final SerializableString NAME = new SerializedString("name");
+    static final SerializableString ADDRESS = new SerializedString("address");
+    static final SerializableString BIRTHDATE = new SerializedString("birthdate");
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final long FIRST_CACHED_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final long LAST_CACHED_DAY = LocalDate.of(2099, 12, 31).toEpochDay();
+
+    // Filled lazily; SerializedString is immutable, so racing writers can only store equal values
+    private final SerializedString[] dates = new SerializedString[(int) (LAST_CACHED_DAY - FIRST_CACHED_DAY + 1)];
+
+    public CustomerJsonSerializer() {
+        super(Customer.class);
+    }
+
+    @Override
+    public void serialize(Customer customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(customer);
+        // Null fields are written as null, as Jackson writes them for CustomerModel
+        generator.writeFieldName(ID);
+        if (customer.getId() != null) {
+            generator.writeNumber(customer.getId());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName(NAME);
+        generator.writeString(customer.getName());
+        generator.writeFieldName(ADDRESS);
+        generator.writeString(customer.getAddress());
+        generator.writeFieldName(BIRTHDATE);
+        if (customer.getBirthdate() != null) {
+            writeDate(generator, customer.getBirthdate());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeDate(JsonGenerator generator, LocalDate date) throws IOException {
+        long epochDay = date.toEpochDay();
+        if (epochDay < FIRST_CACHED_DAY || epochDay > LAST_CACHED_DAY) {
+            generator.writeString(date.format(DATE_FORMATTER));
+            return;
+        }
+        int index = (int) (epochDay - FIRST_CACHED_DAY);
+        SerializedString encoded = dates[index];
+        if (encoded == null) {
+            encoded = new SerializedString(date.format(DATE_FORMATTER));
+            dates[index] = encoded;
+        }
+        generator.writeString(encoded);
+    }
+}
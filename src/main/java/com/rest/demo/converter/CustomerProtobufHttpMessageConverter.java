@@ -0,0 +1,188 @@
+package com.rest.demo.converter;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.ErrorResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes customer payloads as {@code application/x-protobuf} in the schema of {@code src/main/proto/customer.proto}.
+ * Messages are encoded straight from {@link Customer} and {@link CustomerModel}, so there are no generated classes
+ * and no intermediate message objects. Only customer data has a protobuf encoding: a {@link CustomerResponse}
+ * carrying anything else is answered with 406 by {@link CustomerProtobufResponseAdvice}, and refused here before a
+ * byte is written should it get through.
+ */
+public class CustomerProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // CustomerResponse and ErrorResponse
+    private static final int STATUS = 1;
+    private static final int DATA = 2;
+    private static final int NEXT = 3;
+    private static final int MESSAGE = 2;
+    // Customer
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int ADDRESS = 3;
+    private static final int BIRTHDATE = 4;
+
+    public CustomerProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CustomerResponse.class || clazz == ErrorResponse.class
+                || clazz == Customer.class || clazz == CustomerModel.class;
+    }
+
+    // Responses only; requests are read by the JSON, Smile and CBOR converters
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Customer requests cannot be read from protobuf", inputMessage);
+    }
+
+    // Whether body has an encoding in customer.proto; the converter cannot tell from the class of a CustomerResponse
+    public static boolean canEncode(Object body) {
+        return !(body instanceof CustomerResponse) || isCustomerData(((CustomerResponse<?>) body).getData());
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        if (!canEncode(body)) {
+            throw new HttpMessageNotWritableException("Response data of type "
+                    + ((CustomerResponse<?>) body).getData().getClass().getName() + " has no protobuf encoding");
+        }
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (body instanceof CustomerResponse) {
+            writeResponse(output, (CustomerResponse<?>) body);
+        } else if (body instanceof ErrorResponse) {
+            ErrorResponse error = (ErrorResponse) body;
+            writeStatus(output, error.getStatus());
+            if (error.getMessage() != null) {
+                output.writeString(MESSAGE, error.getMessage());
+            }
+        } else {
+            writeCustomer(output, body);
+        }
+        output.flush();
+    }
+
+    private void writeResponse(CodedOutputStream output, CustomerResponse<?> response) throws IOException {
+        writeStatus(output, response.getStatus());
+        Object data = response.getData();
+        if (data instanceof List) {
+            for (Object customer : (List<?>) data) {
+                writeEmbeddedCustomer(output, customer);
+            }
+        } else if (data != null) {
+            writeEmbeddedCustomer(output, data);
+        }
+        if (response.getNext() != null) {
+            output.writeString(NEXT, response.getNext());
+        }
+    }
+
+    private void writeStatus(CodedOutputStream output, String status) throws IOException {
+        ResponseEnum[] responses = ResponseEnum.values();
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i].getMessage().equals(status)) {
+                // 0 is STATUS_UNSPECIFIED, which proto3 leaves off the wire
+                output.writeEnum(STATUS, i + 1);
+                return;
+            }
+        }
+    }
+
+    private void writeEmbeddedCustomer(CodedOutputStream output, Object customer) throws IOException {
+        output.writeTag(DATA, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(customerSize(customer));
+        writeCustomer(output, customer);
+    }
+
+    private int customerSize(Object customer) {
+        if (customer instanceof Customer) {
+            Customer entity = (Customer) customer;
+            return customerSize(entity.getId(), entity.getName(), entity.getAddress(), entity.getBirthdate());
+        }
+        CustomerModel model = (CustomerModel) customer;
+        return customerSize(model.getId(), model.getName(), model.getAddress(), toDate(model.getBirthdate()));
+    }
+
+    private int customerSize(Long id, String name, String address, LocalDate birthdate) {
+        int size = 0;
+        if (id != null) {
+            size += CodedOutputStream.computeInt64Size(ID, id);
+        }
+        if (name != null) {
+            size += CodedOutputStream.computeStringSize(NAME, name);
+        }
+        if (address != null) {
+            size += CodedOutputStream.computeStringSize(ADDRESS, address);
+        }
+        if (birthdate != null) {
+            size += CodedOutputStream.computeSInt32Size(BIRTHDATE, (int) birthdate.toEpochDay());
+        }
+        return size;
+    }
+
+    private void writeCustomer(CodedOutputStream output, Object customer) throws IOException {
+        if (customer instanceof Customer) {
+            Customer entity = (Customer) customer;
+            writeCustomer(output, entity.getId(), entity.getName(), entity.getAddress(), entity.getBirthdate());
+        } else {
+            CustomerModel model = (CustomerModel) customer;
+            writeCustomer(output, model.getId(), model.getName(), model.getAddress(), toDate(model.getBirthdate()));
+        }
+    }
+
+    private void writeCustomer(CodedOutputStream output, Long id, String name, String address, LocalDate birthdate)
+            throws IOException {
+        if (id != null) {
+            output.writeInt64(ID, id);
+        }
+        if (name != null) {
+            output.writeString(NAME, name);
+        }
+        if (address != null) {
+            output.writeString(ADDRESS, address);
+        }
+        if (birthdate != null) {
+            output.writeSInt32(BIRTHDATE, (int) birthdate.toEpochDay());
+        }
+    }
+
+    private static boolean isCustomerData(Object data) {
+        if (data instanceof List) {
+            for (Object element : (List<?>) data) {
+                if (!(element instanceof Customer || element instanceof CustomerModel)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return data == null || data instanceof Customer || data instanceof CustomerModel;
+    }
+
+    private LocalDate toDate(String birthdate) {
+        return birthdate == null ? null : LocalDate.parse(birthdate);
+    }
+}
@@ -0,0 +1,35 @@
+package com.rest.demo.converter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Content negotiation only sees the class of a response, so a CustomerResponse carrying batch results or other
+// non-customer data can still be matched to protobuf. Such a body is not acceptable in that format: 406, not a 500.
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CustomerProtobufResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return CustomerProtobufHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!CustomerProtobufHttpMessageConverter.canEncode(body)) {
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+                    "This response has no " + CustomerProtobufHttpMessageConverter.PROTOBUF + " encoding");
+        }
+        return body;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rest.demo.enums.ResponseEnum;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the {@code status} of a response envelope. The {@link ResponseEnum} messages are encoded once and reused;
+ * any other status is written as a plain string, so the output matches the default serialization.
+ */
+public class ResponseStatusJsonSerializer extends StdSerializer<String> {
+    private final Map<String, SerializableString> statuses = new HashMap<>();
+
+    public ResponseStatusJsonSerializer() {
+        super(String.class);
+        for (ResponseEnum response : ResponseEnum.values()) {
+            statuses.put(response.getMessage(), new SerializedString(response.getMessage()));
+        }
+    }
+
+    @Override
+    public void serialize(String status, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        SerializableString encoded = statuses.get(status);
+        if (encoded != null) {
+            generator.writeString(encoded);
+        } else {
+            generator.writeString(status);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rest.demo.converter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Bodies written by the message converters are JSON, Smile, CBOR or protobuf depending on Accept, so a shared cache
+// has to keep one copy per Accept header rather than serve whichever encoding it stored first
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class VaryByAcceptResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        for (String vary : headers.getVary()) {
+            if (vary.equals("*") || vary.equalsIgnoreCase(HttpHeaders.ACCEPT)) {
+                return body;
+            }
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return body;
+    }
+}
@@ -0,0 +1,21 @@
+package com.rest.demo.datasource;
+
+// Marks the current request thread as having to read from the primary, e.g. right after the client's own write
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
@@ -5,11 +5,13 @@ import org.springframework.data.annotation.Id;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDate;
 
 @NoArgsConstructor
-@AllArgsConstructor
 @Setter
 @Getter
 @Entity
@@ -20,14 +22,28 @@ public class Customer {
     private String name;
     private String address;
     private LocalDate birthdate;
+    private Long version;
+
+    public Customer(Long id, String name, String address, LocalDate birthdate) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.birthdate = birthdate;
+    }
 
     public void setId(Long id) {
         this.id = id;
     }
 
     @javax.persistence.Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     public Long getId() {
         return id;
     }
+
+    @Version
+    public Long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,21 @@
+package com.rest.demo.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+// R2DBC mapping of the customer table; kept apart from the JPA entity so each Spring Data module claims only its own repositories
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@Table("customer")
+public class ReactiveCustomer {
+    @Id
+    private Long id;
+    private String name;
+    private String address;
+    private LocalDate birthdate;
+}
@@ -0,0 +1,19 @@
+package com.rest.demo.enums;
+
+// Fields a client can ask for with ?fields=; each is also the name of the customer column it comes from
+public enum CustomerFieldEnum {
+    ID("id"),
+    NAME("name"),
+    ADDRESS("address"),
+    BIRTHDATE("birthdate");
+
+    private final String field;
+
+    private CustomerFieldEnum(String field) {
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
@@ -0,0 +1,16 @@
+package com.rest.demo.enums;
+
+public enum ImportFormatEnum {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    private ImportFormatEnum(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
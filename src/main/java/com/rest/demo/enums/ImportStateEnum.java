@@ -0,0 +1,17 @@
+package com.rest.demo.enums;
+
+public enum ImportStateEnum {
+    RUNNING("running"),
+    COMPLETED("completed"),
+    FAILED("failed");
+
+    private final String state;
+
+    private ImportStateEnum(String state) {
+        this.state = state;
+    }
+
+    public String getState() {
+        return state;
+    }
+}
@@ -0,0 +1,17 @@
+package com.rest.demo.enums;
+
+public enum IngestStateEnum {
+    QUEUED("queued"),
+    WRITTEN("written"),
+    FAILED("failed");
+
+    private final String state;
+
+    private IngestStateEnum(String state) {
+        this.state = state;
+    }
+
+    public String getState() {
+        return state;
+    }
+}
@@ -0,0 +1,306 @@
+package com.rest.demo.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.ErrorResponse;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST and PUT safe to retry. The first request with a given Idempotency-Key runs as usual and its response is
+ * stored; a repeat of that key with the same body gets the stored response back without reaching the controller.
+ * Duplicates arriving while the first is still running wait for its response instead of running alongside it; with
+ * the persistent store, a duplicate arriving at another instance meanwhile gets 409 and retries later.
+ *
+ * <p>Keys are scoped to the method and path. A key reused with a different body is rejected with 422, and responses
+ * that ask the client to retry (5xx, 429) are not stored, so the retry actually runs.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long LEADER_WAIT_MILLIS = 30_000;
+    private static final String IN_PROGRESS =
+            "A request with this " + KEY_HEADER + " is in progress or did not complete, retry later";
+    // Per-exchange or recomputed by the container on replay
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            HttpHeaders.SET_COOKIE.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase(), HttpHeaders.CONTENT_TYPE.toLowerCase());
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("POST".equals(method) || "PUT".equals(method)) || request.getHeader(KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        String fingerprint = sha256(body);
+        String scopeHash = sha256((request.getMethod() + ' ' + request.getRequestURI() + ' ' + key)
+                .getBytes(StandardCharsets.UTF_8));
+
+        Optional<StoredResponse> stored = idempotencyStore.find(scopeHash);
+        if (stored.isPresent()) {
+            replay(stored.get(), fingerprint, response);
+            return;
+        }
+        CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(scopeHash, own);
+        if (leader != null) {
+            awaitLeader(leader, fingerprint, response);
+            return;
+        }
+        StoredResponse result = null;
+        boolean reserved = false;
+        try {
+            // The previous holder of the key may have stored its response between the lookup above and putIfAbsent
+            stored = idempotencyStore.find(scopeHash);
+            if (stored.isPresent()) {
+                result = stored.get();
+                replay(result, fingerprint, response);
+                return;
+            }
+            reserved = reserve(scopeHash, fingerprint);
+            if (!reserved) {
+                // Held by another instance, which may have finished since the lookup
+                stored = idempotencyStore.find(scopeHash);
+                if (stored.isPresent()) {
+                    result = stored.get();
+                    replay(result, fingerprint, response);
+                } else {
+                    writeError(response, HttpStatus.CONFLICT, IN_PROGRESS);
+                }
+                return;
+            }
+            result = execute(new CachedBodyRequest(request, body), response, filterChain, scopeHash, fingerprint);
+        } finally {
+            if (reserved && result == null) {
+                release(scopeHash);
+            }
+            own.complete(result);
+            inFlight.remove(scopeHash, own);
+        }
+    }
+
+    private boolean reserve(String scopeHash, String fingerprint) {
+        try {
+            return idempotencyStore.reserve(scopeHash, fingerprint);
+        } catch (DataAccessException e) {
+            // As when storing: without the table, duplicates are still held back on this instance
+            return true;
+        }
+    }
+
+    private void release(String scopeHash) {
+        try {
+            idempotencyStore.release(scopeHash);
+        } catch (DataAccessException e) {
+            // The reservation lapses on its own once it is old enough to count as abandoned
+        }
+    }
+
+    // Runs the request and returns the response as stored, or null when it should not be replayed
+    private StoredResponse execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                                   String scopeHash, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, cachingResponse);
+        StoredResponse result = null;
+        int status = cachingResponse.getStatus();
+        if (status < HttpStatus.INTERNAL_SERVER_ERROR.value() && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+            result = new StoredResponse(fingerprint, status, captureHeaders(cachingResponse),
+                    cachingResponse.getContentAsByteArray());
+            try {
+                idempotencyStore.put(scopeHash, result);
+            } catch (DataAccessException e) {
+                // The response is still held in memory; only sharing it across restarts and instances is lost
+            }
+        }
+        cachingResponse.copyBodyToResponse();
+        return result;
+    }
+
+    private void awaitLeader(CompletableFuture<StoredResponse> leader, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        StoredResponse result;
+        try {
+            result = leader.get(LEADER_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = null;
+        } catch (ExecutionException | TimeoutException e) {
+            result = null;
+        }
+        if (result == null) {
+            writeError(response, HttpStatus.CONFLICT, IN_PROGRESS);
+            return;
+        }
+        replay(result, fingerprint, response);
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    KEY_HEADER + " was already used with a different request body");
+            return;
+        }
+        response.setStatus(stored.getStatus());
+        stored.getHeaders().forEach((name, values) -> {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                response.setContentType(values.get(0));
+            } else {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private Map<String, List<String>> captureHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        // Containers keep the content type apart from the other headers
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        for (String name : response.getHeaderNames()) {
+            if (!UNSTORED_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(new ErrorResponse(ResponseEnum.FAILED.getMessage(), message));
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The body has already been read for the fingerprint, so downstream reads are served from the copy
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Everything is already in memory, so the listener can be told at once
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
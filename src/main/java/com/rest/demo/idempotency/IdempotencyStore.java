@@ -0,0 +1,72 @@
+package com.rest.demo.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rest.demo.repository.IdempotencyKeyRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Responses by idempotency scope: a bounded in-memory cache with a TTL, optionally backed by the idempotency_key
+ * table so keys survive restarts and are shared between instances. With the table, a key is reserved there before
+ * its request runs, which keeps two instances from running the same key at once.
+ */
+public class IdempotencyStore {
+    // Expired rows are cleared on every this many inserts rather than by a separate job
+    private static final int CLEANUP_INTERVAL = 1000;
+    // A reservation this old belongs to an instance that went away mid-request, and the key may be taken over
+    private static final Duration ABANDONED_AFTER = Duration.ofMinutes(1);
+
+    private final Cache<String, StoredResponse> responses;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration ttl;
+    private final AtomicLong inserts = new AtomicLong();
+
+    // idempotencyKeyRepository is null when keys are kept in memory only
+    public IdempotencyStore(long maxEntries, Duration ttl, IdempotencyKeyRepository idempotencyKeyRepository) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = ttl;
+    }
+
+    public Optional<StoredResponse> find(String scopeHash) {
+        StoredResponse response = responses.getIfPresent(scopeHash);
+        if (response == null && idempotencyKeyRepository != null) {
+            Optional<StoredResponse> stored = idempotencyKeyRepository.find(scopeHash, Instant.now().minus(ttl));
+            stored.ifPresent(found -> responses.put(scopeHash, found));
+            return stored;
+        }
+        return Optional.ofNullable(response);
+    }
+
+    // False when the key is held by a request on another instance; without the table the caller's own lock is enough
+    public boolean reserve(String scopeHash, String fingerprint) {
+        if (idempotencyKeyRepository == null) {
+            return true;
+        }
+        Instant now = Instant.now();
+        return idempotencyKeyRepository.reserve(scopeHash, fingerprint, now.minus(ttl), now.minus(ABANDONED_AFTER));
+    }
+
+    public void release(String scopeHash) {
+        if (idempotencyKeyRepository != null) {
+            idempotencyKeyRepository.release(scopeHash);
+        }
+    }
+
+    public void put(String scopeHash, StoredResponse response) {
+        responses.put(scopeHash, response);
+        if (idempotencyKeyRepository != null) {
+            idempotencyKeyRepository.insert(scopeHash, response);
+            if (inserts.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+                idempotencyKeyRepository.deleteBefore(Instant.now().minus(ttl));
+            }
+        }
+    }
+}
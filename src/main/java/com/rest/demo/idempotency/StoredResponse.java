@@ -0,0 +1,18 @@
+package com.rest.demo.idempotency;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+// A completed response kept for replay, with the fingerprint of the request body that produced it
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class StoredResponse {
+    private String fingerprint;
+    private int status;
+    private Map<String, List<String>> headers;
+    private byte[] body;
+}
@@ -0,0 +1,115 @@
+package com.rest.demo.limit;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD concurrency limit steered by latency. Latency is judged per window of samples: the window's 90th percentile
+ * is compared with the long-term average of that percentile. While it stays within twice that baseline and at least
+ * half the budget is in use, the limit grows by about one per round trip. Errors and a window above the tolerance
+ * cut it by a tenth, at most once per round trip, so a slow database sheds load instead of queueing it.
+ * A percentile rather than single samples, because the traffic is a mix of fast cache hits and slower database
+ * reads: a steady mix keeps a steady percentile, while individual misses always look slow next to an average.
+ */
+public class AdaptiveConcurrencyLimiter {
+    static final int SAMPLE_WINDOW = 100;
+    private static final double PERCENTILE = 0.9;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // Windows in the long-term baseline; long enough that a slowdown reads as a slowdown before it becomes the norm
+    private static final int LONG_WINDOWS = 6;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+    // Guarded by this
+    private double estimate;
+    private final long[] window = new long[SAMPLE_WINDOW];
+    private int samples;
+    private double baselineNanos;
+    private boolean congested;
+    private long lastBackoffNanos;
+    private boolean backedOff;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimate;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // dropped marks a failed request, which counts as overload whatever its latency
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        update(rttNanos, dropped, inFlightBeforeRelease, System.nanoTime());
+    }
+
+    // For requests whose duration says nothing about the database, such as ones handed off to async processing
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void update(long rttNanos, boolean dropped, int inFlightBeforeRelease, long nowNanos) {
+        window[samples++] = rttNanos;
+        if (samples == SAMPLE_WINDOW) {
+            samples = 0;
+            long percentile = percentile();
+            if (baselineNanos == 0) {
+                baselineNanos = percentile;
+            }
+            congested = percentile > baselineNanos * LATENCY_TOLERANCE;
+            baselineNanos += (percentile - baselineNanos) / LONG_WINDOWS;
+            if (congested) {
+                backOff(nowNanos);
+            }
+        }
+        if (dropped) {
+            backOff(nowNanos);
+        } else if (!congested && inFlightBeforeRelease * 2 >= estimate) {
+            estimate = Math.min(maxLimit, estimate + 1 / estimate);
+        }
+        limit = (int) estimate;
+    }
+
+    private void backOff(long nowNanos) {
+        if (!backedOff || nowNanos - lastBackoffNanos >= baselineNanos) {
+            estimate = Math.max(minLimit, estimate * BACKOFF_RATIO);
+            lastBackoffNanos = nowNanos;
+            backedOff = true;
+        }
+    }
+
+    private long percentile() {
+        long[] sorted = window.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) (PERCENTILE * (SAMPLE_WINDOW - 1))];
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,66 @@
+package com.rest.demo.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.ErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admits a request only while its budget has room, and otherwise answers 503 straight away so excess load never
+ * waits in Tomcat or on the connection pool. Reads and writes have separate budgets, so a write backlog cannot
+ * starve reads.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final byte[] rejectedBody;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter readLimiter, AdaptiveConcurrencyLimiter writeLimiter,
+                                  ObjectMapper objectMapper) throws IOException {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.rejectedBody = objectMapper.writeValueAsBytes(
+                new ErrorResponse(ResponseEnum.FAILED.getMessage(), "Server is overloaded, retry later"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(rejectedBody.length);
+            response.getOutputStream().write(rejectedBody);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streams and long-lived exports outlive this call; only the handler's own work has passed
+                limiter.releaseWithoutSample();
+            } else {
+                limiter.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+
+    private boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+}
@@ -0,0 +1,19 @@
+package com.rest.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerMetrics {
+    public static final String FAILED_REQUESTS = "customer.requests.failed";
+    private final MeterRegistry meterRegistry;
+
+    public CustomerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // reason is a fixed outcome such as "validation" or "not_found", or the exception type for unexpected failures
+    public void recordFailure(String operation, String reason) {
+        meterRegistry.counter(FAILED_REQUESTS, "operation", operation, "reason", reason).increment();
+    }
+}
@@ -0,0 +1,16 @@
+package com.rest.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+    private int index;
+    private String status;
+    private CustomerModel data;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.rest.demo.model;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerChange {
+    private long seq;
+    private String operation;
+    private CustomerModel customer;
+    private Long version;
+}
@@ -0,0 +1,14 @@
+package com.rest.demo.model;
+
+import lombok.*;
+
+// One line of an import's reject file: where the record started, why it was rejected and the record as read
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerImportReject {
+    private long line;
+    private String error;
+    private String record;
+}
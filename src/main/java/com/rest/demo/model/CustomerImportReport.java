@@ -0,0 +1,26 @@
+package com.rest.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.Instant;
+
+// Progress of a bulk import while it runs, and its final report once it has finished
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerImportReport {
+    private String importId;
+    private String state;
+    private String format;
+    private Instant startedAt;
+    private long read;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.rest.demo.model;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerIngestStats {
+    private int capacity;
+    private int queued;
+    private long accepted;
+    private long written;
+    private long failed;
+    private long rejected;
+}
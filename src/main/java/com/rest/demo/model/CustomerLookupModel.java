@@ -0,0 +1,14 @@
+package com.rest.demo.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerLookupModel {
+    private List<CustomerModel> found;
+    private List<Long> missing;
+}
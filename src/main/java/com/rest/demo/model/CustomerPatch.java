@@ -0,0 +1,48 @@
+package com.rest.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A JSON Merge Patch body. Jackson calls a setter for every member present, null included, which is how a field
+// set to null is told apart from one left out.
+@Getter
+@NoArgsConstructor
+public class CustomerPatch {
+    private String name;
+    private String address;
+    private String birthdate;
+    private boolean namePresent;
+    private boolean addressPresent;
+    private boolean birthdatePresent;
+    @JsonIgnore
+    private final List<String> unknownFields = new ArrayList<>();
+
+    public void setName(String name) {
+        this.name = name;
+        this.namePresent = true;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+        this.addressPresent = true;
+    }
+
+    public void setBirthdate(String birthdate) {
+        this.birthdate = birthdate;
+        this.birthdatePresent = true;
+    }
+
+    @JsonAnySetter
+    public void setUnknownField(String field, Object value) {
+        unknownFields.add(field);
+    }
+
+    public boolean isEmpty() {
+        return !namePresent && !addressPresent && !birthdatePresent;
+    }
+}
@@ -1,5 +1,6 @@
 package com.rest.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.rest.demo.entity.Customer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,4 +13,6 @@ import lombok.Setter;
 public class CustomerResponse<T> {
     private String status;
     private T data;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
 }
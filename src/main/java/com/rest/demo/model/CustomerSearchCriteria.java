@@ -0,0 +1,20 @@
+package com.rest.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerSearchCriteria {
+    private String name;
+    private String address;
+    private LocalDate birthdateFrom;
+    private LocalDate birthdateTo;
+    private boolean sortByRelevance;
+}
@@ -0,0 +1,17 @@
+package com.rest.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Keyset position of a search page: the last row's score (0 when sorting by id) and id, and the sort it was taken under
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerSearchCursor {
+    private int score;
+    private long id;
+    private boolean sortByRelevance;
+}
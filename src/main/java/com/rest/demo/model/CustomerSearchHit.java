@@ -0,0 +1,15 @@
+package com.rest.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerSearchHit {
+    private CustomerModel customer;
+    private int score;
+}
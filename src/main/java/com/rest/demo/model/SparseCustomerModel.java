@@ -0,0 +1,13 @@
+package com.rest.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.NoArgsConstructor;
+
+// A ?fields= selection: the fields left out are null and not written, where a full CustomerModel writes its nulls
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SparseCustomerModel extends CustomerModel {
+    public SparseCustomerModel(Long id, String name, String address, String birthdate) {
+        super(id, name, address, birthdate);
+    }
+}
@@ -0,0 +1,67 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.model.CustomerChange;
+import com.rest.demo.model.CustomerModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+// Reads the customer_change outbox that the V6 trigger fills; every query walks the seq primary key
+@Repository
+public class CustomerChangeRepository {
+    private static final String COLUMNS = "SELECT seq, operation, customer_id, name, address, birthdate, version FROM customer_change ";
+    private static final String FIND_AFTER_SQL = COLUMNS + "WHERE seq > ? ORDER BY seq LIMIT ?";
+    private static final String FIND_BETWEEN_SQL = COLUMNS + "WHERE seq > ? AND seq <= ? ORDER BY seq LIMIT ?";
+    private static final String FIND_LATEST_SEQ_SQL = "SELECT COALESCE(MAX(seq), 0) FROM customer_change";
+    private static final String DELETE_BEFORE_SQL = "DELETE FROM customer_change WHERE changed_at < ?";
+
+    private static final RowMapper<CustomerChange> CUSTOMER_CHANGE_MAPPER = (resultSet, rowNum) -> {
+        LocalDate birthdate = resultSet.getObject(6, LocalDate.class);
+        CustomerModel customer = new CustomerModel(
+                resultSet.getLong(3),
+                resultSet.getString(4),
+                resultSet.getString(5),
+                birthdate != null ? birthdate.format(DateTimeFormatter.ISO_LOCAL_DATE) : null);
+        return new CustomerChange(resultSet.getLong(1), resultSet.getString(2), customer, resultSet.getObject(7, Long.class));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<CustomerChange> findAfter(long seq, int limit) {
+        return jdbcTemplate.query(FIND_AFTER_SQL, CUSTOMER_CHANGE_MAPPER, seq, limit);
+    }
+
+    // Bounded above so a catch-up read never runs past what the tailer has already published
+    public List<CustomerChange> findBetween(long afterSeq, long upToSeq, int limit) {
+        return jdbcTemplate.query(FIND_BETWEEN_SQL, CUSTOMER_CHANGE_MAPPER, afterSeq, upToSeq, limit);
+    }
+
+    public List<CustomerChange> findBySeqs(List<Long> seqs) {
+        if (seqs.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(seqs.size(), "?"));
+        return jdbcTemplate.query(COLUMNS + "WHERE seq IN (" + placeholders + ") ORDER BY seq", CUSTOMER_CHANGE_MAPPER,
+                seqs.toArray());
+    }
+
+    public long findLatestSeq() {
+        return jdbcTemplate.queryForObject(FIND_LATEST_SEQ_SQL, Long.class);
+    }
+
+    public int deleteBefore(Instant instant) {
+        return jdbcTemplate.update(DELETE_BEFORE_SQL, OffsetDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+}
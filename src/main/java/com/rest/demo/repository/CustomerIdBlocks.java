@@ -0,0 +1,43 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// Id allocation for the JDBC bulk paths. Ids are taken from whole customer_seq blocks the same way Hibernate's pooled
+// optimizer uses them, (hi - 49) to hi, so they never collide with ids handed out by the JPA path.
+final class CustomerIdBlocks {
+    // Must match the increment of customer_seq and the entity's allocationSize
+    static final int BLOCK_SIZE = 50;
+    private static final String RESERVE_SQL = "SELECT nextval('customer_seq') FROM generate_series(1, ?)";
+
+    private CustomerIdBlocks() {
+    }
+
+    // One round trip for as many blocks as the customers need
+    static void assign(JdbcTemplate jdbcTemplate, List<Customer> customers) {
+        int blocks = (customers.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        List<Long> highs = jdbcTemplate.queryForList(RESERVE_SQL, Long.class, blocks);
+        for (int i = 0; i < customers.size(); i++) {
+            customers.get(i).setId(highs.get(i / BLOCK_SIZE) - BLOCK_SIZE + 1 + i % BLOCK_SIZE);
+        }
+    }
+
+    // The same allocation within one statement, for rows numbered from 0 in the position column of relation: a CTE
+    // named blocks with one (hi, block) row per reserved block, and each row's id once joined to it. A CTE because it
+    // is evaluated once, where a subquery in FROM could be rescanned and draw further values from the sequence.
+    static String blocksCte(String relation) {
+        return "blocks AS (SELECT nextval('customer_seq') AS hi, row_number() OVER () - 1 AS block"
+                + " FROM generate_series(1, (SELECT (count(*) + " + (BLOCK_SIZE - 1) + ") / " + BLOCK_SIZE
+                + " FROM " + relation + ")))";
+    }
+
+    static String joinCondition(String relation) {
+        return "blocks.block = " + relation + ".position / " + BLOCK_SIZE;
+    }
+
+    static String idExpression(String relation) {
+        return "blocks.hi - " + (BLOCK_SIZE - 1) + " + " + relation + ".position % " + BLOCK_SIZE;
+    }
+}
@@ -0,0 +1,103 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.List;
+
+// Bulk import: rows are streamed into a temporary staging table with COPY and merged into customer with one statement.
+// Every merged row also fires the customer_change_outbox trigger, so each customer is written a second time, to
+// customer_change, in the same transaction. The change feed needs those rows, so imports pay for them.
+@Repository
+public class CustomerImportRepository {
+    // Temporary, so concurrent imports never see each other's rows and nothing is WAL-logged
+    private static final String CREATE_STAGE_SQL = "CREATE TEMPORARY TABLE customer_import_stage "
+            + "(line INT NOT NULL, name TEXT NOT NULL, address TEXT NOT NULL, birthdate DATE NOT NULL) ON COMMIT DROP";
+    private static final String COPY_SQL =
+            "COPY customer_import_stage (line, name, address, birthdate) FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_SQL =
+            mergeSql("SELECT line, name, address, birthdate FROM customer_import_stage");
+    // Rows matching an existing customer, or an earlier row of the chunk, are skipped. Existing customers are found
+    // through customer_birthdate_idx, comparing name and address on every customer born that day.
+    private static final String INSERT_NEW_SQL = mergeSql(
+            "SELECT DISTINCT ON (name, address, birthdate) line, name, address, birthdate FROM customer_import_stage s"
+                    + " WHERE NOT EXISTS (SELECT 1 FROM customer c"
+                    + " WHERE c.birthdate = s.birthdate AND c.name = s.name AND c.address = s.address)"
+                    + " ORDER BY name, address, birthdate, line");
+    private static final String DROP_STAGE_SQL = "DROP TABLE customer_import_stage";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Must run inside a transaction, which the staging table lives for. Returns how many customers were inserted.
+    public int insertAll(List<Customer> customers) {
+        return merge(customers, INSERT_SQL);
+    }
+
+    // As insertAll, skipping customers that already exist, so a file can be loaded again after a partial run
+    public int insertNew(List<Customer> customers) {
+        return merge(customers, INSERT_NEW_SQL);
+    }
+
+    private int merge(List<Customer> customers, String mergeSql) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGE_SQL);
+            }
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, COPY_SQL), StandardCharsets.UTF_8))) {
+                for (int i = 0; i < customers.size(); i++) {
+                    Customer customer = customers.get(i);
+                    writer.write(Integer.toString(i));
+                    writer.write(',');
+                    writeCsvField(writer, customer.getName());
+                    writer.write(',');
+                    writeCsvField(writer, customer.getAddress());
+                    writer.write(',');
+                    writer.write(customer.getBirthdate().toString());
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try (Statement statement = connection.createStatement()) {
+                int inserted = statement.executeUpdate(mergeSql);
+                statement.execute(DROP_STAGE_SQL);
+                return inserted;
+            }
+        });
+    }
+
+    // Numbers the candidate rows in file order and inserts them with ids from freshly reserved sequence blocks
+    private static String mergeSql(String candidates) {
+        return "WITH candidates AS (" + candidates + "), numbered AS ("
+                + " SELECT name, address, birthdate, row_number() OVER (ORDER BY line) - 1 AS position FROM candidates"
+                + "), " + CustomerIdBlocks.blocksCte("numbered")
+                + " INSERT INTO customer (id, name, address, birthdate, version)"
+                + " SELECT " + CustomerIdBlocks.idExpression("numbered") + ","
+                + " numbered.name, numbered.address, numbered.birthdate, 0"
+                + " FROM numbered JOIN blocks ON " + CustomerIdBlocks.joinCondition("numbered");
+    }
+
+    // Always quoted, so an empty string is never read back as NULL
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
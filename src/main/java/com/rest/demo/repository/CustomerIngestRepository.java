@@ -0,0 +1,39 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Bulk inserts for the write-behind ingest path; one batch is one round trip for ids and one batched INSERT
+@Repository
+public class CustomerIngestRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO customer (id, name, address, birthdate, version) VALUES (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerIngestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Customers that already carry an id from an earlier, rolled back attempt keep it, so retrying a batch row by row
+    // reserves no further id blocks
+    public void insertAll(List<Customer> customers) {
+        List<Customer> unassigned = customers.stream().filter(customer -> customer.getId() == null).collect(Collectors.toList());
+        if (!unassigned.isEmpty()) {
+            CustomerIdBlocks.assign(jdbcTemplate, unassigned);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, customers, customers.size(), (statement, customer) -> {
+            statement.setLong(1, customer.getId());
+            statement.setString(2, customer.getName());
+            statement.setString(3, customer.getAddress());
+            statement.setObject(4, customer.getBirthdate());
+        });
+        for (Customer customer : customers) {
+            customer.setVersion(0L);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Partial updates for PATCH. Only the columns a patch carries are written, and the row is left alone entirely
+// (no new tuple, no WAL, no index or outbox entries) when none of them would change.
+@Repository
+public class CustomerPatchRepository {
+    private static final String RETURNING = " RETURNING id, name, address, birthdate, version";
+
+    private static final RowMapper<Customer> CUSTOMER_MAPPER = (resultSet, rowNum) -> {
+        Customer customer = new Customer(
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                resultSet.getString(3),
+                resultSet.getObject(4, LocalDate.class));
+        customer.setVersion(resultSet.getLong(5));
+        return customer;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerPatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Null fields of changes are not part of the patch. Empty when nothing was written: the customer is missing,
+    // is at another version than expectedVersion, or already holds every patched value.
+    public Optional<Customer> updateChanged(Customer changes, Long expectedVersion) {
+        List<String> assignments = new ArrayList<>(3);
+        List<String> differences = new ArrayList<>(3);
+        List<Object> setArgs = new ArrayList<>(3);
+        List<Object> differenceArgs = new ArrayList<>(3);
+        addColumn("name", changes.getName(), assignments, differences, setArgs, differenceArgs);
+        addColumn("address", changes.getAddress(), assignments, differences, setArgs, differenceArgs);
+        addColumn("birthdate", changes.getBirthdate(), assignments, differences, setArgs, differenceArgs);
+        if (assignments.isEmpty()) {
+            return Optional.empty();
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE customer SET ")
+                .append(String.join(", ", assignments))
+                .append(", version = version + 1 WHERE id = ?");
+        List<Object> args = new ArrayList<>(setArgs);
+        args.add(changes.getId());
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" AND (").append(String.join(" OR ", differences)).append(')').append(RETURNING);
+        args.addAll(differenceArgs);
+        return jdbcTemplate.query(sql.toString(), CUSTOMER_MAPPER, args.toArray()).stream().findFirst();
+    }
+
+    private void addColumn(String column, Object value, List<String> assignments, List<String> differences,
+                           List<Object> setArgs, List<Object> differenceArgs) {
+        if (value != null) {
+            assignments.add(column + " = ?");
+            setArgs.add(value);
+            differences.add(column + " IS DISTINCT FROM ?");
+            differenceArgs.add(value);
+        }
+    }
+}
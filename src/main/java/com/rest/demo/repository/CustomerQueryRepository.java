@@ -0,0 +1,175 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
+import com.rest.demo.model.CustomerSearchHit;
+import com.rest.demo.model.SparseCustomerModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Read-only queries that map rows straight to CustomerModel, bypassing the persistence context
+@Repository
+public class CustomerQueryRepository {
+    private static final String FIND_PAGE_SQL =
+            "SELECT id, name, address, birthdate FROM customer ORDER BY id LIMIT ? OFFSET ?";
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final RowMapper<CustomerModel> CUSTOMER_MODEL_MAPPER = (resultSet, rowNum) -> new CustomerModel(
+            resultSet.getLong(1),
+            resultSet.getString(2),
+            resultSet.getString(3),
+            formatBirthdate(resultSet, 4));
+
+    private static final RowMapper<CustomerSearchHit> CUSTOMER_SEARCH_HIT_MAPPER = (resultSet, rowNum) -> new CustomerSearchHit(
+            CUSTOMER_MODEL_MAPPER.mapRow(resultSet, rowNum),
+            resultSet.getInt(5));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerQueryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<CustomerModel> findPage(long offset, int limit) {
+        return jdbcTemplate.query(FIND_PAGE_SQL, CUSTOMER_MODEL_MAPPER, limit, offset);
+    }
+
+    // Sparse fieldsets: only the selected columns are read, and the fields left out stay null in the models
+    public List<CustomerModel> findPage(long offset, int limit, Set<CustomerFieldEnum> fields) {
+        List<CustomerFieldEnum> columns = new ArrayList<>(fields);
+        return jdbcTemplate.query("SELECT " + columnList(columns) + " FROM customer ORDER BY id LIMIT ? OFFSET ?",
+                sparseMapper(columns), limit, offset);
+    }
+
+    // The id is read whatever the selection, as the caller needs it for the next cursor
+    public List<CustomerModel> findAfter(long afterId, int limit, Set<CustomerFieldEnum> fields) {
+        Set<CustomerFieldEnum> withId = EnumSet.copyOf(fields);
+        withId.add(CustomerFieldEnum.ID);
+        List<CustomerFieldEnum> columns = new ArrayList<>(withId);
+        return jdbcTemplate.query("SELECT " + columnList(columns) + " FROM customer WHERE id > ? ORDER BY id LIMIT ?",
+                sparseMapper(columns), afterId, limit);
+    }
+
+    // Must be called inside a transaction so the driver keeps a server-side cursor open instead of buffering every row
+    public void streamAll(Set<CustomerFieldEnum> fields, Consumer<CustomerModel> consumer) {
+        List<CustomerFieldEnum> columns = new ArrayList<>(fields);
+        String sql = "SELECT " + columnList(columns) + " FROM customer ORDER BY id";
+        RowMapper<CustomerModel> mapper = sparseMapper(columns);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(mapper.mapRow(resultSet, resultSet.getRow())));
+    }
+
+    // Name matches by prefix, address by substring; both also match fuzzily through pg_trgm similarity.
+    // Pages are keyset based on (score, id), where score is 0 unless sorting by relevance.
+    public List<CustomerSearchHit> search(CustomerSearchCriteria criteria, CustomerSearchCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder score = new StringBuilder();
+        if (criteria.isSortByRelevance()) {
+            List<String> similarities = new ArrayList<>();
+            if (criteria.getName() != null) {
+                similarities.add("similarity(name, ?)");
+                args.add(criteria.getName());
+            }
+            if (criteria.getAddress() != null) {
+                similarities.add("similarity(address, ?)");
+                args.add(criteria.getAddress());
+            }
+            score.append("CAST(round(1000 * (").append(String.join(" + ", similarities)).append(")) AS integer)");
+        } else {
+            score.append('0');
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT id, name, address, birthdate, ")
+                .append(score).append(" AS score FROM customer WHERE TRUE");
+        if (criteria.getName() != null) {
+            sql.append(" AND (name ILIKE ? OR name % ?)");
+            args.add(escapeLike(criteria.getName()) + "%");
+            args.add(criteria.getName());
+        }
+        if (criteria.getAddress() != null) {
+            sql.append(" AND (address ILIKE ? OR address % ?)");
+            args.add("%" + escapeLike(criteria.getAddress()) + "%");
+            args.add(criteria.getAddress());
+        }
+        if (criteria.getBirthdateFrom() != null) {
+            sql.append(" AND birthdate >= ?");
+            args.add(criteria.getBirthdateFrom());
+        }
+        if (criteria.getBirthdateTo() != null) {
+            sql.append(" AND birthdate <= ?");
+            args.add(criteria.getBirthdateTo());
+        }
+        sql.append(") hits");
+        if (after != null) {
+            sql.append(" WHERE score < ? OR (score = ? AND id > ?)");
+            args.add(after.getScore());
+            args.add(after.getScore());
+            args.add(after.getId());
+        }
+        sql.append(" ORDER BY score DESC, id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), CUSTOMER_SEARCH_HIT_MAPPER, args.toArray());
+    }
+
+    private String columnList(List<CustomerFieldEnum> columns) {
+        StringBuilder columnList = new StringBuilder();
+        for (CustomerFieldEnum column : columns) {
+            if (columnList.length() > 0) {
+                columnList.append(", ");
+            }
+            columnList.append(column.getField());
+        }
+        return columnList.toString();
+    }
+
+    private RowMapper<CustomerModel> sparseMapper(List<CustomerFieldEnum> columns) {
+        return (resultSet, rowNum) -> {
+            CustomerModel model = new SparseCustomerModel();
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i)) {
+                    case ID:
+                        model.setId(resultSet.getLong(i + 1));
+                        break;
+                    case NAME:
+                        model.setName(resultSet.getString(i + 1));
+                        break;
+                    case ADDRESS:
+                        model.setAddress(resultSet.getString(i + 1));
+                        break;
+                    case BIRTHDATE:
+                        model.setBirthdate(formatBirthdate(resultSet, i + 1));
+                        break;
+                }
+            }
+            return model;
+        };
+    }
+
+    // The column is nullable: rows written outside the API need not have a birthdate
+    private static String formatBirthdate(ResultSet resultSet, int column) throws SQLException {
+        LocalDate birthdate = resultSet.getObject(column, LocalDate.class);
+        return birthdate != null ? birthdate.format(DateTimeFormatter.ISO_LOCAL_DATE) : null;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
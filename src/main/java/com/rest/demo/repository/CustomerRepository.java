@@ -1,8 +1,56 @@
 package com.rest.demo.repository;
 
 import com.rest.demo.entity.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {}
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    // Returning a Slice makes Spring Data fetch limit + 1 rows instead of issuing a count(*) query
+    Slice<Customer> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Must be consumed inside a transaction so the driver keeps a server-side cursor open
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select c from Customer c order by c.id")
+    Stream<Customer> streamAll();
+
+    // RETURNING lets a write report the affected row without a separate SELECT
+    @Transactional
+    @Query(value = "UPDATE customer SET name = :name, address = :address, birthdate = :birthdate, version = version + 1 "
+            + "WHERE id = :id RETURNING *",
+            nativeQuery = true)
+    Optional<Customer> updateReturning(@Param("id") Long id, @Param("name") String name,
+                                       @Param("address") String address, @Param("birthdate") LocalDate birthdate);
+
+    // Compare-and-set on the version: empty when the row is missing or was changed since the client read it
+    @Transactional
+    @Query(value = "UPDATE customer SET name = :name, address = :address, birthdate = :birthdate, version = version + 1 "
+            + "WHERE id = :id AND version = :version RETURNING *",
+            nativeQuery = true)
+    Optional<Customer> updateReturningIfVersion(@Param("id") Long id, @Param("name") String name,
+                                                @Param("address") String address, @Param("birthdate") LocalDate birthdate,
+                                                @Param("version") Long version);
+
+    @Transactional
+    @Query(value = "DELETE FROM customer WHERE id = :id RETURNING *", nativeQuery = true)
+    Optional<Customer> deleteReturning(@Param("id") Long id);
+}
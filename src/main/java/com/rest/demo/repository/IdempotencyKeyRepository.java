@@ -0,0 +1,95 @@
+package com.rest.demo.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.idempotency.StoredResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+public class IdempotencyKeyRepository {
+    private static final TypeReference<Map<String, List<String>>> HEADERS_TYPE = new TypeReference<>() {
+    };
+    private static final String FIND_SQL = "SELECT fingerprint, status, headers, body FROM idempotency_key "
+            + "WHERE scope_hash = ? AND status IS NOT NULL AND created_at >= ?";
+    // Takes a free key, or one whose response has expired or whose reservation was abandoned
+    private static final String RESERVE_SQL = "INSERT INTO idempotency_key (scope_hash, fingerprint) VALUES (?, ?) "
+            + "ON CONFLICT (scope_hash) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, "
+            + "status = NULL, headers = NULL, body = NULL, created_at = now() "
+            + "WHERE idempotency_key.created_at < ? "
+            + "OR (idempotency_key.status IS NULL AND idempotency_key.created_at < ?)";
+    // Completes a reservation. The first response stored for a key wins, as it is the one every replay has to match.
+    private static final String INSERT_SQL =
+            "INSERT INTO idempotency_key (scope_hash, fingerprint, status, headers, body) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (scope_hash) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, "
+                    + "status = EXCLUDED.status, headers = EXCLUDED.headers, body = EXCLUDED.body "
+                    + "WHERE idempotency_key.status IS NULL";
+    private static final String RELEASE_SQL = "DELETE FROM idempotency_key WHERE scope_hash = ? AND status IS NULL";
+    private static final String DELETE_BEFORE_SQL = "DELETE FROM idempotency_key WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<StoredResponse> find(String scopeHash, Instant notBefore) {
+        List<StoredResponse> responses = jdbcTemplate.query(FIND_SQL, (resultSet, rowNum) -> new StoredResponse(
+                resultSet.getString(1),
+                resultSet.getInt(2),
+                readHeaders(resultSet.getString(3)),
+                resultSet.getBytes(4)), scopeHash, toTimestamp(notBefore));
+        return responses.stream().findFirst();
+    }
+
+    // False when another request holds the key, or has completed it since expiredBefore
+    public boolean reserve(String scopeHash, String fingerprint, Instant expiredBefore, Instant abandonedBefore) {
+        return jdbcTemplate.update(RESERVE_SQL, scopeHash, fingerprint, toTimestamp(expiredBefore),
+                toTimestamp(abandonedBefore)) == 1;
+    }
+
+    public void insert(String scopeHash, StoredResponse response) {
+        jdbcTemplate.update(INSERT_SQL, scopeHash, response.getFingerprint(), response.getStatus(),
+                writeHeaders(response.getHeaders()), response.getBody());
+    }
+
+    // Drops a reservation whose request produced nothing worth replaying, so a retry can run
+    public void release(String scopeHash) {
+        jdbcTemplate.update(RELEASE_SQL, scopeHash);
+    }
+
+    public int deleteBefore(Instant instant) {
+        return jdbcTemplate.update(DELETE_BEFORE_SQL, toTimestamp(instant));
+    }
+
+    private OffsetDateTime toTimestamp(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private Map<String, List<String>> readHeaders(String headers) {
+        try {
+            return objectMapper.readValue(headers, HEADERS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String writeHeaders(Map<String, List<String>> headers) {
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.ReactiveCustomer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveCustomerRepository extends R2dbcRepository<ReactiveCustomer, Long> {
+    Flux<ReactiveCustomer> findAllBy(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE customer SET name = :name, address = :address, birthdate = :birthdate, version = version + 1 WHERE id = :id")
+    Mono<Integer> updateCustomer(@Param("id") Long id, @Param("name") String name,
+                                 @Param("address") String address, @Param("birthdate") LocalDate birthdate);
+
+    // One statement, so a concurrent delete cannot slip in between reading the customer and removing it
+    @Query("DELETE FROM customer WHERE id = :id RETURNING *")
+    Mono<ReactiveCustomer> deleteReturning(@Param("id") Long id);
+}
@@ -0,0 +1,287 @@
+package com.rest.demo.service;
+
+import com.rest.demo.model.CustomerChange;
+import com.rest.demo.repository.CustomerChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans the customer_change outbox out to change feed subscribers. A single tailer thread reads new outbox rows and
+ * publishes them into an in-memory ring; subscribers read the ring, so the database sees one query per poll
+ * interval however many clients are connected. A subscriber only queries the outbox itself to catch up from an
+ * older sequence number, or after falling further behind than the ring holds.
+ *
+ * <p>Sequence numbers are taken at insert time but become visible at commit, so a gap may be a transaction that
+ * has not committed yet. The tailer waits up to the gap timeout before moving past a gap; changes that commit
+ * into a skipped gap later are still published, after the changes that overtook them.
+ */
+@Service
+public class CustomerChangeService {
+    private static final int TAIL_BATCH_SIZE = 500;
+    private static final int CATCH_UP_PAGE_SIZE = 500;
+    private static final int SEND_BATCH_SIZE = 100;
+    private static final int MAX_SKIPPED = 10_000;
+    private static final int MAX_SKIPPED_LOOKUP = 1000;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    private static final long RETENTION_CHECK_MILLIS = 3_600_000;
+    // A gap still empty after this long belonged to a transaction that rolled back
+    private static final long SKIPPED_EXPIRY_MILLIS = 600_000;
+
+    private final CustomerChangeRepository customerChangeRepository;
+    private final long pollIntervalMillis;
+    private final long gapTimeoutMillis;
+    private final Duration retention;
+    private final CustomerChange[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    // Subscribers mostly sit parked waiting for changes, which is what virtual threads are cheap at
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread tailer;
+    // Guarded by lock: every seq up to head has been published or skipped, and nextPosition is the ring slot to fill next
+    private long head;
+    private long nextPosition;
+    // Tailer thread only
+    private final NavigableMap<Long, Long> skipped = new TreeMap<>();
+    private long gapSince;
+    private long lastRetentionCheck;
+    private volatile boolean running;
+
+    public CustomerChangeService(CustomerChangeRepository customerChangeRepository,
+                                 @Value("${demo.changes.poll-interval:200ms}") Duration pollInterval,
+                                 @Value("${demo.changes.gap-timeout:5s}") Duration gapTimeout,
+                                 @Value("${demo.changes.retention:7d}") Duration retention,
+                                 @Value("${demo.changes.buffer-size:10000}") int bufferSize) {
+        this.customerChangeRepository = customerChangeRepository;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.gapTimeoutMillis = gapTimeout.toMillis();
+        this.retention = retention;
+        this.ring = new CustomerChange[bufferSize];
+        this.tailer = new Thread(this::tailLoop, "customer-change-tailer");
+        this.tailer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        head = customerChangeRepository.findLatestSeq();
+        running = true;
+        tailer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        tailer.interrupt();
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        senders.shutdown();
+        senders.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    // Streams changes after the given seq, or only new ones when it is null, until the sink fails or the subscription is cancelled
+    public Subscription subscribe(Long after, ChangeSink sink) {
+        Subscription subscription = new Subscription();
+        long position;
+        long lastSeq;
+        // Taken here rather than on the sender, so everything published after subscribe returns reaches the subscriber
+        lock.lock();
+        try {
+            position = nextPosition;
+            lastSeq = head;
+        } finally {
+            lock.unlock();
+        }
+        senders.execute(() -> stream(after, position, lastSeq, sink, subscription));
+        return subscription;
+    }
+
+    private void stream(Long after, long position, long lastSeq, ChangeSink sink, Subscription subscription) {
+        try {
+            if (after != null && after < lastSeq) {
+                catchUp(after, lastSeq, sink);
+            }
+            while (running && subscription.isActive()) {
+                List<CustomerChange> changes = new ArrayList<>();
+                long catchUpTo = -1;
+                lock.lock();
+                try {
+                    if (position < nextPosition - ring.length) {
+                        // Overrun by the tailer: resume from the outbox and rejoin the ring at its current end
+                        catchUpTo = head;
+                        position = nextPosition;
+                    } else {
+                        if (position == nextPosition) {
+                            published.await(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                        }
+                        while (position < nextPosition && changes.size() < SEND_BATCH_SIZE) {
+                            changes.add(ring[(int) (position++ % ring.length)]);
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (catchUpTo >= 0) {
+                    catchUp(lastSeq, catchUpTo, sink);
+                    lastSeq = Math.max(lastSeq, catchUpTo);
+                    continue;
+                }
+                if (!subscription.isActive()) {
+                    break;
+                }
+                // An empty list is a heartbeat, which is also how a vanished client is noticed
+                sink.send(changes);
+                for (CustomerChange change : changes) {
+                    lastSeq = Math.max(lastSeq, change.getSeq());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The client went away or the outbox could not be read; either way this subscription is over
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.cancel();
+            sink.close();
+        }
+    }
+
+    private void catchUp(long afterSeq, long upToSeq, ChangeSink sink) throws IOException {
+        long cursor = afterSeq;
+        while (true) {
+            List<CustomerChange> page = customerChangeRepository.findBetween(cursor, upToSeq, CATCH_UP_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            sink.send(page);
+            cursor = page.get(page.size() - 1).getSeq();
+            if (page.size() < CATCH_UP_PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+
+    private void tailLoop() {
+        boolean full = false;
+        while (running) {
+            if (!full) {
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            try {
+                full = poll() == TAIL_BATCH_SIZE;
+                if (!full) {
+                    removeExpiredChanges();
+                }
+            } catch (DataAccessException e) {
+                // The database is unavailable; the next poll picks up where this one stopped
+                full = false;
+            }
+        }
+    }
+
+    // Returns how many contiguous changes were read, so a full batch can be followed straight away
+    int poll() {
+        long now = System.currentTimeMillis();
+        List<CustomerChange> changes = new ArrayList<>();
+        if (!skipped.isEmpty()) {
+            List<Long> lookup = new ArrayList<>(MAX_SKIPPED_LOOKUP);
+            for (Long seq : skipped.keySet()) {
+                if (lookup.size() == MAX_SKIPPED_LOOKUP) {
+                    break;
+                }
+                lookup.add(seq);
+            }
+            for (CustomerChange late : customerChangeRepository.findBySeqs(lookup)) {
+                skipped.remove(late.getSeq());
+                changes.add(late);
+            }
+            skipped.values().removeIf(since -> now - since > SKIPPED_EXPIRY_MILLIS);
+        }
+        long newHead = head;
+        int read = 0;
+        for (CustomerChange change : customerChangeRepository.findAfter(newHead, TAIL_BATCH_SIZE)) {
+            if (change.getSeq() != newHead + 1) {
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < gapTimeoutMillis) {
+                    break;
+                }
+                for (long seq = newHead + 1; seq < change.getSeq() && skipped.size() < MAX_SKIPPED; seq++) {
+                    skipped.put(seq, now);
+                }
+            }
+            gapSince = 0;
+            changes.add(change);
+            newHead = change.getSeq();
+            read++;
+        }
+        publish(changes, newHead);
+        return read;
+    }
+
+    private void publish(List<CustomerChange> changes, long newHead) {
+        lock.lock();
+        try {
+            for (CustomerChange change : changes) {
+                ring[(int) (nextPosition++ % ring.length)] = change;
+            }
+            head = newHead;
+            if (!changes.isEmpty()) {
+                published.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeExpiredChanges() {
+        long now = System.currentTimeMillis();
+        if (now - lastRetentionCheck >= RETENTION_CHECK_MILLIS) {
+            lastRetentionCheck = now;
+            customerChangeRepository.deleteBefore(Instant.ofEpochMilli(now).minus(retention));
+        }
+    }
+
+    public interface ChangeSink {
+        // Receives changes in publication order; an empty list is a heartbeat
+        void send(List<CustomerChange> changes) throws IOException;
+
+        default void close() {
+        }
+    }
+
+    public static final class Subscription {
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        public boolean isActive() {
+            return active.get();
+        }
+
+        public void cancel() {
+            active.set(false);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.rest.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.converter.CustomerImportReader;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.ImportFormatEnum;
+import com.rest.demo.enums.ImportStateEnum;
+import com.rest.demo.model.CustomerImportReject;
+import com.rest.demo.model.CustomerImportReport;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.repository.CustomerImportRepository;
+import com.rest.demo.validator.CustomerValidator;
+import com.rest.demo.validator.ValidationResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Bulk loads customer files. Records are validated as POST /customer would, and the valid ones are loaded in chunks
+// of one COPY and one merge each, committed as they go, so memory stays flat and a failed import keeps what it loaded.
+@Service
+public class CustomerImportService {
+    public static final String ROWS_COUNTER = "customer.import.rows";
+    private static final Duration REPORT_RETENTION = Duration.ofHours(24);
+    private static final int MAX_REPORTS = 1000;
+
+    private final CustomerImportRepository customerImportRepository;
+    private final CustomerValidator customerValidator;
+    private final CustomerConverter customerConverter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean skipExisting;
+    private final Path rejectDir;
+    // Reject files go when their report does
+    private final Cache<String, CustomerImportReport> reports;
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public CustomerImportService(CustomerImportRepository customerImportRepository, CustomerValidator customerValidator,
+                                 CustomerConverter customerConverter, ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${demo.import.chunk-size:50000}") int chunkSize,
+                                 @Value("${demo.import.skip-existing:false}") boolean skipExisting,
+                                 @Value("${demo.import.reject-dir:}") String rejectDir) {
+        this.customerImportRepository = customerImportRepository;
+        this.customerValidator = customerValidator;
+        this.customerConverter = customerConverter;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.skipExisting = skipExisting;
+        this.rejectDir = rejectDir.isEmpty()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "customer-import")
+                : Path.of(rejectDir);
+        this.reports = Caffeine.newBuilder()
+                .maximumSize(MAX_REPORTS)
+                .expireAfterWrite(REPORT_RETENTION)
+                .removalListener((String importId, CustomerImportReport report, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        deleteRejects(importId);
+                    }
+                })
+                .build();
+
+        registerCounter(meterRegistry, imported, "imported");
+        registerCounter(meterRegistry, duplicates, "duplicate");
+        registerCounter(meterRegistry, rejected, "rejected");
+    }
+
+    // progress is called after every committed chunk and once more with the final report
+    public CustomerImportReport importCustomers(InputStream input, ImportFormatEnum format,
+                                                Consumer<CustomerImportReport> progress) throws IOException {
+        ImportProgress state = new ImportProgress(UUID.randomUUID().toString(), format);
+        Files.createDirectories(rejectDir);
+        publish(state, ImportStateEnum.RUNNING, null, progress);
+        try (CustomerImportReader reader = new CustomerImportReader(input, format, objectMapper);
+             BufferedWriter rejectWriter = Files.newBufferedWriter(rejectsPath(state.importId), StandardCharsets.UTF_8);
+             SequenceWriter rejects = objectMapper.writer().withRootValueSeparator("\n").writeValues(rejectWriter)) {
+            List<Customer> chunk = new ArrayList<>(Math.min(chunkSize, 10_000));
+            CustomerImportReader.ImportRecord record;
+            while ((record = reader.next()) != null) {
+                state.read++;
+                String error = record.getError() != null ? record.getError() : validate(record.getModel());
+                if (error != null) {
+                    state.rejected++;
+                    rejected.incrementAndGet();
+                    rejects.write(new CustomerImportReject(record.getLine(), error, record.getRaw()));
+                    continue;
+                }
+                chunk.add(customerConverter.toEntity(record.getModel()));
+                if (chunk.size() == chunkSize) {
+                    load(chunk, state);
+                    publish(state, ImportStateEnum.RUNNING, null, progress);
+                }
+            }
+            load(chunk, state);
+        } catch (IOException | RuntimeException e) {
+            publish(state, ImportStateEnum.FAILED, e.getMessage(), progress);
+            throw e;
+        }
+        return publish(state, ImportStateEnum.COMPLETED, null, progress);
+    }
+
+    public Optional<CustomerImportReport> findReport(String importId) {
+        return Optional.ofNullable(reports.getIfPresent(importId));
+    }
+
+    // Most recent first
+    public List<CustomerImportReport> findReports() {
+        return reports.asMap().values().stream()
+                .sorted(Comparator.comparing(CustomerImportReport::getStartedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    // Empty once the report has expired; the file holds one CustomerImportReject per line
+    public Optional<Path> findRejects(String importId) {
+        Path path = rejectsPath(importId);
+        return reports.getIfPresent(importId) != null && Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private String validate(CustomerModel model) {
+        ValidationResult validation = customerValidator.validateRequest(model);
+        if (!validation.isValid()) {
+            return validation.getMessage();
+        }
+        // Postgres text cannot hold NUL, and one such row would fail the whole chunk
+        if (model.getName().indexOf('\0') >= 0 || model.getAddress().indexOf('\0') >= 0) {
+            return "name and address must not contain NUL characters";
+        }
+        return null;
+    }
+
+    private void load(List<Customer> chunk, ImportProgress state) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Name, address and birthdate do not identify a customer, so skipping matches is only for reloading a file
+        int inserted = transactionTemplate.execute(status -> skipExisting
+                ? customerImportRepository.insertNew(chunk)
+                : customerImportRepository.insertAll(chunk));
+        state.imported += inserted;
+        state.duplicates += chunk.size() - inserted;
+        imported.addAndGet(inserted);
+        duplicates.addAndGet(chunk.size() - inserted);
+        chunk.clear();
+    }
+
+    private CustomerImportReport publish(ImportProgress state, ImportStateEnum importState, String message,
+                                         Consumer<CustomerImportReport> progress) {
+        long elapsedNanos = Math.max(System.nanoTime() - state.startNanos, 1);
+        CustomerImportReport report = new CustomerImportReport(state.importId, importState.getState(),
+                state.format.getMediaType(), state.startedAt, state.read, state.imported, state.duplicates, state.rejected,
+                elapsedNanos / 1_000_000, state.read * 1_000_000_000L / elapsedNanos, message);
+        reports.put(state.importId, report);
+        if (progress != null) {
+            progress.accept(report);
+        }
+        return report;
+    }
+
+    private Path rejectsPath(String importId) {
+        return rejectDir.resolve(importId + ".ndjson");
+    }
+
+    private void deleteRejects(String importId) {
+        try {
+            Files.deleteIfExists(rejectsPath(importId));
+        } catch (IOException e) {
+            // Left behind in the reject directory; nothing refers to it any more
+        }
+    }
+
+    private void registerCounter(MeterRegistry meterRegistry, AtomicLong counter, String outcome) {
+        FunctionCounter.builder(ROWS_COUNTER, counter, AtomicLong::get).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private static final class ImportProgress {
+        private final String importId;
+        private final ImportFormatEnum format;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private long read;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+
+        private ImportProgress(String importId, ImportFormatEnum format) {
+            this.importId = importId;
+            this.format = format;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.rest.demo.service;
+
+import com.rest.demo.entity.Customer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of queued ingest requests, so accepted customers survive a restart of the process.
+ * Every append is handed to the OS before the request is acknowledged but not fsynced, which covers a crashed
+ * JVM but not a crashed machine. Replay is at-least-once: a crash between a commit and its completion record
+ * writes those customers again.
+ */
+class CustomerIngestLog implements Closeable {
+    private static final byte ACCEPTED = 'A';
+    private static final byte COMPLETED = 'C';
+    // Customer columns are far shorter; anything longer is a torn or corrupt length prefix
+    private static final int MAX_STRING_BYTES = 1 << 20;
+
+    private final Path path;
+    private FileOutputStream file;
+    private DataOutputStream out;
+
+    CustomerIngestLog(Path path) {
+        this.path = path;
+    }
+
+    // Reads back the customers that were accepted but never completed and compacts the log down to them
+    List<CustomerIngestService.PendingCustomer> recover() throws IOException {
+        Map<String, CustomerIngestService.PendingCustomer> pending = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                readRecords(in, pending);
+            }
+        }
+        List<CustomerIngestService.PendingCustomer> recovered = new ArrayList<>(pending.values());
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream compactedOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+            for (CustomerIngestService.PendingCustomer customer : recovered) {
+                writeAccepted(compactedOut, customer);
+            }
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        file = new FileOutputStream(path.toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(file));
+        return recovered;
+    }
+
+    void appendAccepted(CustomerIngestService.PendingCustomer customer) throws IOException {
+        writeAccepted(out, customer);
+        out.flush();
+    }
+
+    void appendCompleted(List<CustomerIngestService.PendingCustomer> customers) throws IOException {
+        for (CustomerIngestService.PendingCustomer customer : customers) {
+            out.writeByte(COMPLETED);
+            writeString(out, customer.getTrackingId());
+        }
+        out.flush();
+    }
+
+    // Only safe once nothing is queued; later appends start again at the beginning of the file
+    void truncate() throws IOException {
+        out.flush();
+        file.getChannel().truncate(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    private void readRecords(DataInputStream in, Map<String, CustomerIngestService.PendingCustomer> pending) throws IOException {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                String trackingId = readString(in);
+                if (type == ACCEPTED) {
+                    Customer customer = new Customer(null, readString(in), readString(in), LocalDate.ofEpochDay(in.readLong()));
+                    pending.put(trackingId, new CustomerIngestService.PendingCustomer(trackingId, customer));
+                } else if (type == COMPLETED) {
+                    pending.remove(trackingId);
+                } else {
+                    return;
+                }
+            }
+        } catch (EOFException e) {
+            // A record cut short by the crash was never acknowledged, so it is dropped
+        }
+    }
+
+    private void writeAccepted(DataOutputStream stream, CustomerIngestService.PendingCustomer pending) throws IOException {
+        stream.writeByte(ACCEPTED);
+        writeString(stream, pending.getTrackingId());
+        writeString(stream, pending.getCustomer().getName());
+        writeString(stream, pending.getCustomer().getAddress());
+        stream.writeLong(pending.getCustomer().getBirthdate().toEpochDay());
+    }
+
+    private void writeString(DataOutputStream stream, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new EOFException();
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,286 @@
+package com.rest.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.IngestStateEnum;
+import com.rest.demo.model.CustomerIngestStats;
+import com.rest.demo.model.CustomerIngestStatus;
+import com.rest.demo.repository.CustomerIngestRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Write-behind path for POST /customer with Prefer: respond-async. Customers are acknowledged once queued and a single
+// flusher thread writes them in JDBC batches. A full queue is reported to the caller instead of blocking a request thread.
+@Service
+public class CustomerIngestService {
+    private static final Logger log = LoggerFactory.getLogger(CustomerIngestService.class);
+    public static final String QUEUE_GAUGE = "customer.ingest.queue";
+    public static final String CUSTOMERS_COUNTER = "customer.ingest.customers";
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+    private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+
+    private final CustomerIngestRepository customerIngestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxRetries;
+    private final BlockingQueue<PendingCustomer> queue;
+    private final CustomerIngestLog ingestLog;
+    private final Cache<String, CustomerIngestStatus> statuses;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Thread flusher;
+    private volatile boolean running;
+    // Recovered customers are only in the log until they are queued, so it must not be truncated before then
+    private volatile boolean replaying;
+
+    public CustomerIngestService(CustomerIngestRepository customerIngestRepository, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${demo.ingest.queue-capacity:10000}") int capacity,
+                                 @Value("${demo.ingest.batch-size:500}") int batchSize,
+                                 @Value("${demo.ingest.max-retries:60}") int maxRetries,
+                                 @Value("${demo.ingest.log-path:}") String logPath) {
+        this.customerIngestRepository = customerIngestRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.ingestLog = logPath.isEmpty() ? null : new CustomerIngestLog(Path.of(logPath));
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(Math.max(capacity * 10L, 100_000L))
+                .expireAfterWrite(STATUS_RETENTION)
+                .build();
+        this.flusher = new Thread(this::flushLoop, "customer-ingest-flusher");
+        this.flusher.setDaemon(true);
+
+        Gauge.builder(QUEUE_GAUGE, queue, BlockingQueue::size).register(meterRegistry);
+        registerCounter(meterRegistry, accepted, "accepted");
+        registerCounter(meterRegistry, written, "written");
+        registerCounter(meterRegistry, failed, "failed");
+        registerCounter(meterRegistry, rejected, "rejected");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        replaying = ingestLog != null;
+        flusher.start();
+        if (ingestLog != null) {
+            try {
+                // Replayed behind the running flusher, so a backlog larger than the queue only waits for room
+                for (PendingCustomer pending : ingestLog.recover()) {
+                    statuses.put(pending.getTrackingId(), queued(pending.getTrackingId()));
+                    queue.put(pending);
+                }
+                // Left set if the replay is cut short, so customers that never made it into the queue stay logged
+                replaying = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Lets the flusher drain what is queued; anything left after the timeout stays in the log for the next start
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        flusher.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (ingestLog != null && !flusher.isAlive()) {
+            ingestLog.close();
+        }
+    }
+
+    // Empty when the queue is full or shutting down, in which case the caller should retry later
+    public Optional<CustomerIngestStatus> enqueue(Customer customer) {
+        if (!running) {
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+        // Ids are assigned when the batch is written; one sent by the client is ignored
+        customer.setId(null);
+        PendingCustomer pending = new PendingCustomer(UUID.randomUUID().toString(), customer);
+        if (!offer(pending)) {
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+        accepted.incrementAndGet();
+        CustomerIngestStatus status = queued(pending.getTrackingId());
+        // The flusher may already have finished the customer, and its outcome must not be overwritten
+        statuses.asMap().putIfAbsent(pending.getTrackingId(), status);
+        return Optional.of(status);
+    }
+
+    public Optional<CustomerIngestStatus> findStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    public CustomerIngestStats getStats() {
+        return new CustomerIngestStats(capacity, queue.size(), accepted.get(), written.get(), failed.get(), rejected.get());
+    }
+
+    private boolean offer(PendingCustomer pending) {
+        if (ingestLog == null) {
+            return queue.offer(pending);
+        }
+        // Logging and queueing happen under one lock so the flusher can tell when the log holds nothing unwritten
+        synchronized (ingestLog) {
+            if (queue.remainingCapacity() == 0) {
+                return false;
+            }
+            try {
+                ingestLog.appendAccepted(pending);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return queue.offer(pending);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingCustomer> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingCustomer first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Ids assigned by a failed attempt are kept for the next one: the sequence does not roll back, so they stay reserved
+    private void flush(List<PendingCustomer> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                completed(batch, Map.of());
+                return;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+                // The database is busy or unreachable: hold on to the batch and let the queue fill up, which turns into 429s
+                if (attempt > maxRetries) {
+                    log.error("Giving up on {} queued customers after {} attempts", batch.size(), attempt, e);
+                    String reason = e.getMostSpecificCause().getMessage();
+                    completed(batch, batch.stream().collect(Collectors.toMap(PendingCustomer::getTrackingId, pending -> reason)));
+                    return;
+                }
+                log.warn("Writing {} queued customers failed, attempt {} of {}: {}", batch.size(), attempt, maxRetries + 1,
+                        e.getMostSpecificCause().getMessage());
+                Thread.sleep(RETRY_BACKOFF_MILLIS);
+            } catch (DataAccessException e) {
+                // Some row was rejected; retry one by one so only the offending customers fail
+                Map<String, String> failures = new HashMap<>();
+                for (PendingCustomer pending : batch) {
+                    try {
+                        write(List.of(pending));
+                    } catch (DataAccessException rowFailure) {
+                        failures.put(pending.getTrackingId(), rowFailure.getMostSpecificCause().getMessage());
+                    }
+                }
+                completed(batch, failures);
+                return;
+            }
+        }
+    }
+
+    private void write(List<PendingCustomer> batch) {
+        List<Customer> customers = batch.stream().map(PendingCustomer::getCustomer).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> customerIngestRepository.insertAll(customers));
+    }
+
+    // failures maps tracking ids to the database's reason; every other customer in the batch was written
+    private void completed(List<PendingCustomer> batch, Map<String, String> failures) {
+        for (PendingCustomer pending : batch) {
+            String failure = failures.get(pending.getTrackingId());
+            if (failure == null) {
+                statuses.put(pending.getTrackingId(), new CustomerIngestStatus(pending.getTrackingId(),
+                        IngestStateEnum.WRITTEN.getState(), pending.getCustomer().getId(), null));
+            } else {
+                statuses.put(pending.getTrackingId(), new CustomerIngestStatus(pending.getTrackingId(),
+                        IngestStateEnum.FAILED.getState(), null, failure));
+            }
+        }
+        written.addAndGet(batch.size() - failures.size());
+        failed.addAndGet(failures.size());
+        if (ingestLog != null) {
+            synchronized (ingestLog) {
+                try {
+                    if (queue.isEmpty() && !replaying) {
+                        ingestLog.truncate();
+                    } else {
+                        ingestLog.appendCompleted(batch);
+                    }
+                } catch (IOException e) {
+                    // Not fatal: at worst these customers are written again on the next start
+                }
+            }
+        }
+    }
+
+    private CustomerIngestStatus queued(String trackingId) {
+        return new CustomerIngestStatus(trackingId, IngestStateEnum.QUEUED.getState(), null, null);
+    }
+
+    private void registerCounter(MeterRegistry meterRegistry, AtomicLong counter, String outcome) {
+        FunctionCounter.builder(CUSTOMERS_COUNTER, counter, AtomicLong::get).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    static final class PendingCustomer {
+        private final String trackingId;
+        private final Customer customer;
+
+        PendingCustomer(String trackingId, Customer customer) {
+            this.trackingId = trackingId;
+            this.customer = customer;
+        }
+
+        String getTrackingId() {
+            return trackingId;
+        }
+
+        Customer getCustomer() {
+            return customer;
+        }
+    }
+}
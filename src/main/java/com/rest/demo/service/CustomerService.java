@@ -1,50 +1,218 @@
 package com.rest.demo.service;
 
+import com.rest.demo.config.CacheConfig;
+import com.rest.demo.config.MetricsConfig;
 import com.rest.demo.converter.CustomerConverter;
 import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
+import com.rest.demo.model.CustomerSearchHit;
+import com.rest.demo.repository.CustomerPatchRepository;
+import com.rest.demo.repository.CustomerQueryRepository;
 import com.rest.demo.repository.CustomerRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityNotFoundException;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerService {
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+    private static final int LOOKUP_CHUNK_SIZE = 500;
     private final CustomerRepository customerRepository;
+    private final CustomerQueryRepository customerQueryRepository;
+    private final CustomerPatchRepository customerPatchRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, CustomerQueryRepository customerQueryRepository,
+                           CustomerPatchRepository customerPatchRepository, EntityManager entityManager,
+                           CacheManager cacheManager) {
         this.customerRepository = customerRepository;
+        this.customerQueryRepository = customerQueryRepository;
+        this.customerPatchRepository = customerPatchRepository;
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
     }
 
+    @CachePut(value = CacheConfig.CUSTOMER_CACHE, key = "#result.id")
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public Customer addCustomer(Customer customer) {
         return customerRepository.save(customer);
     }
 
-    public Customer updateCustomer(Customer customer) {
-        Customer currentCustomer = customerRepository.findById(customer.getId())
-                .orElseThrow(() -> new EntityNotFoundException("Customer with id: " + customer.getId() + " is not found"));
-        currentCustomer.setName(customer.getName());
-        currentCustomer.setAddress(customer.getAddress());
-        currentCustomer.setBirthdate(customer.getBirthdate());
-        return customerRepository.save(currentCustomer);
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<Customer> addCustomers(List<Customer> customers) {
+        return customerRepository.saveAll(customers);
     }
 
-    public Customer findCustomerById(Long id) {
-        return customerRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Customer with id: " + id + " is not found"));
+    @Transactional
+    @CachePut(value = CacheConfig.CUSTOMER_CACHE, key = "#customer.id", unless = "#result == null")
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Optional<Customer> updateCustomer(Customer customer, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return customerRepository.updateReturning(customer.getId(), customer.getName(), customer.getAddress(), customer.getBirthdate());
+        }
+        return customerRepository.updateReturningIfVersion(customer.getId(), customer.getName(), customer.getAddress(),
+                customer.getBirthdate(), expectedVersion);
     }
 
+    // Null fields of changes are left untouched. A patch that changes nothing returns the current customer without
+    // writing; empty means the customer is missing or is not at expectedVersion.
+    @Transactional
+    @CachePut(value = CacheConfig.CUSTOMER_CACHE, key = "#changes.id", unless = "#result == null")
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Optional<Customer> patchCustomer(Customer changes, Long expectedVersion) {
+        Optional<Customer> updated = customerPatchRepository.updateChanged(changes, expectedVersion);
+        if (updated.isPresent()) {
+            return updated;
+        }
+        return customerRepository.findById(changes.getId())
+                .filter(customer -> expectedVersion == null || expectedVersion.equals(customer.getVersion()));
+    }
+
+    // Deliberately not read-only: it runs right after a failed write and must not see a lagging replica
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public boolean customerExists(Long id) {
+        return customerRepository.existsById(id);
+    }
+
+    // Not read-only either: whatever it loads is cached for everyone, so a lagging replica would keep serving a
+    // stale or deleted customer long after the read-your-writes window. Cache hits never reach the primary.
+    @Transactional
+    @Cacheable(value = CacheConfig.CUSTOMER_CACHE, key = "#id", unless = "#result == null")
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Optional<Customer> findCustomerById(Long id) {
+        return customerRepository.findById(id);
+    }
+
+    // Serves what it can from the customer cache and loads the rest with one IN query per chunk.
+    // The returned map follows the order of the requested ids and only holds the customers that exist.
+    // Misses are read from the primary for the same reason as findCustomerById.
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Map<Long, Customer> findCustomersByIds(List<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.CUSTOMER_CACHE);
+        Map<Long, Customer> customers = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Customer cached = cache != null ? cache.get(id, Customer.class) : null;
+            if (cached != null) {
+                customers.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, misses.size()));
+            for (Customer customer : customerRepository.findAllById(chunk)) {
+                customers.put(customer.getId(), customer);
+                if (cache != null) {
+                    cache.put(customer.getId(), customer);
+                }
+            }
+        }
+        Map<Long, Customer> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                ordered.put(id, customer);
+            }
+        }
+        return ordered;
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public List<Customer> findAllCustomers(Pageable pageable) {
         return customerRepository.findAll(pageable).getContent();
 
     }
 
-    public Customer deleteCustomer(Long id) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Customer with id: " + id + " not found"));
-        customerRepository.deleteById(id);
-        return customer;
+    // Projection path for list endpoints: no managed entities, snapshots or flush, and no entity-to-model copy
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<CustomerModel> findAllCustomerModels(Pageable pageable) {
+        return customerQueryRepository.findPage(pageable.getOffset(), pageable.getPageSize());
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<CustomerModel> findAllCustomerModels(Pageable pageable, Set<CustomerFieldEnum> fields) {
+        return customerQueryRepository.findPage(pageable.getOffset(), pageable.getPageSize(), fields);
+    }
+
+    // Fetches one row past the limit so the caller can tell whether another page exists
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<CustomerModel> findCustomerModelsAfter(Long afterId, int limit, Set<CustomerFieldEnum> fields) {
+        return customerQueryRepository.findAfter(afterId != null ? afterId : 0L, limit + 1, fields);
+    }
+
+    // Fetches one row past the limit so the caller can tell whether another page exists
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<CustomerSearchHit> searchCustomers(CustomerSearchCriteria criteria, CustomerSearchCursor after, int limit) {
+        return customerQueryRepository.search(criteria, after, limit + 1);
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Slice<Customer> findCustomersAfter(Long afterId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.ASC, "id"));
+        return customerRepository.findByIdGreaterThan(afterId != null ? afterId : 0L, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public void exportCustomers(Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            Iterator<Customer> iterator = customers.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public void exportCustomerModels(Set<CustomerFieldEnum> fields, Consumer<CustomerModel> consumer) {
+        customerQueryRepository.streamAll(fields, consumer);
+    }
+
+    @Transactional
+    @CacheEvict(value = CacheConfig.CUSTOMER_CACHE, key = "#id")
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Optional<Customer> deleteCustomer(Long id) {
+        return customerRepository.deleteReturning(id);
     }
 }
@@ -0,0 +1,47 @@
+package com.rest.demo.service;
+
+import com.rest.demo.entity.ReactiveCustomer;
+import com.rest.demo.repository.ReactiveCustomerRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveCustomerService {
+    private final ReactiveCustomerRepository customerRepository;
+
+    public ReactiveCustomerService(ReactiveCustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    public Mono<ReactiveCustomer> addCustomer(ReactiveCustomer customer) {
+        // Ids are generated on insert; with a client-sent id save would update that customer instead
+        customer.setId(null);
+        return customerRepository.save(customer);
+    }
+
+    public Mono<ReactiveCustomer> updateCustomer(ReactiveCustomer customer) {
+        return customerRepository.updateCustomer(customer.getId(), customer.getName(), customer.getAddress(), customer.getBirthdate())
+                .filter(updated -> updated > 0)
+                .map(updated -> customer);
+    }
+
+    public Mono<ReactiveCustomer> findCustomerById(Long id) {
+        return customerRepository.findById(id);
+    }
+
+    public Flux<ReactiveCustomer> findAllCustomers(Pageable pageable) {
+        return customerRepository.findAllBy(pageable);
+    }
+
+    // Rows are pulled from the driver only as fast as the subscriber requests them
+    public Flux<ReactiveCustomer> streamAllCustomers() {
+        return customerRepository.findAll(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    public Mono<ReactiveCustomer> deleteCustomer(Long id) {
+        return customerRepository.deleteReturning(id);
+    }
+}
@@ -1,27 +1,188 @@
 package com.rest.demo.validator;
 
+import com.rest.demo.enums.CustomerFieldEnum;
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerPatch;
 import org.springframework.stereotype.Component;
 
-import javax.validation.ValidationException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class CustomerValidator {
-    public void validateRequest(CustomerModel customerModel) throws ValidationException {
-        if (customerModel.getName().isEmpty()) {
-            throw new ValidationException("name must not be empty");
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_LOOKUP_SIZE = 1000;
+    // Shorter terms have no trigram to look up and would fall back to scanning the whole table
+    private static final int MIN_SEARCH_TERM_LENGTH = 3;
+    private static final List<String> SEARCH_SORTS = List.of("id", "relevance");
+    private static final String EMPTY_FIELD = "fields must not contain empty values";
+
+    public ValidationResult validateRequest(CustomerModel customerModel) {
+        List<String> errors = new ArrayList<>(3);
+        if (isEmpty(customerModel.getName())) {
+            errors.add("name must not be empty");
+        }
+        if (isEmpty(customerModel.getAddress())) {
+            errors.add("address must not be empty");
+        }
+        if (isEmpty(customerModel.getBirthdate())) {
+            errors.add("birthdate must not be empty");
+        } else if (!isIsoDate(customerModel.getBirthdate())) {
+            errors.add("birthdate must be a valid date in yyyy-MM-dd format");
+        }
+        return ValidationResult.of(errors);
+    }
+
+    // Same rules as a full request, applied only to the fields the patch carries; null removes a member, which no field allows
+    public ValidationResult validatePatch(CustomerPatch patch) {
+        List<String> errors = new ArrayList<>(3);
+        for (String field : patch.getUnknownFields()) {
+            errors.add(field + " cannot be patched");
         }
-        if (customerModel.getAddress().isEmpty()) {
-            throw new ValidationException("address must not be empty");
+        if (patch.isNamePresent() && isEmpty(patch.getName())) {
+            errors.add("name must not be empty");
         }
-        if (customerModel.getBirthdate().isEmpty()) {
-            throw new ValidationException("birthdate must not be empty");
+        if (patch.isAddressPresent() && isEmpty(patch.getAddress())) {
+            errors.add("address must not be empty");
         }
+        if (patch.isBirthdatePresent()) {
+            if (isEmpty(patch.getBirthdate())) {
+                errors.add("birthdate must not be empty");
+            } else if (!isIsoDate(patch.getBirthdate())) {
+                errors.add("birthdate must be a valid date in yyyy-MM-dd format");
+            }
+        }
+        return ValidationResult.of(errors);
     }
 
-    public void validateId(CustomerModel customerModel) {
+    public ValidationResult validateId(CustomerModel customerModel) {
         if (customerModel.getId() == null) {
-            throw new ValidationException("id must not be empty");
+            return ValidationResult.error("id must not be empty");
+        }
+        return ValidationResult.valid();
+    }
+
+    // A comma-separated subset of the customer fields; null means every field
+    public ValidationResult validateFields(String fields) {
+        if (fields == null) {
+            return ValidationResult.valid();
+        }
+        List<String> errors = new ArrayList<>();
+        for (String field : fields.split(",", -1)) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                if (!errors.contains(EMPTY_FIELD)) {
+                    errors.add(EMPTY_FIELD);
+                }
+            } else if (!isCustomerField(name)) {
+                errors.add("fields must only contain id, name, address or birthdate, found " + name);
+            }
+        }
+        return ValidationResult.of(errors);
+    }
+
+    public ValidationResult validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ValidationResult.error("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ValidationResult.valid();
+    }
+
+    public ValidationResult validateBatch(List<CustomerModel> customerModels) {
+        if (customerModels == null || customerModels.isEmpty()) {
+            return ValidationResult.error("batch must not be empty");
+        }
+        if (customerModels.size() > MAX_BATCH_SIZE) {
+            return ValidationResult.error("batch must not contain more than " + MAX_BATCH_SIZE + " customers");
+        }
+        return ValidationResult.valid();
+    }
+
+    public ValidationResult validateIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return ValidationResult.error("ids must not be empty");
+        }
+        if (ids.size() > MAX_LOOKUP_SIZE) {
+            return ValidationResult.error("ids must not contain more than " + MAX_LOOKUP_SIZE + " values");
+        }
+        if (ids.contains(null)) {
+            return ValidationResult.error("ids must not contain empty values");
+        }
+        return ValidationResult.valid();
+    }
+
+    public ValidationResult validateSearch(String name, String address, String birthdateFrom, String birthdateTo,
+                                           String sort, int limit) {
+        List<String> errors = new ArrayList<>();
+        if (isEmpty(name) && isEmpty(address) && isEmpty(birthdateFrom) && isEmpty(birthdateTo)) {
+            errors.add("at least one of name, address, birthdateFrom or birthdateTo is required");
+        }
+        if (!isEmpty(name) && name.length() < MIN_SEARCH_TERM_LENGTH) {
+            errors.add("name must be at least " + MIN_SEARCH_TERM_LENGTH + " characters");
+        }
+        if (!isEmpty(address) && address.length() < MIN_SEARCH_TERM_LENGTH) {
+            errors.add("address must be at least " + MIN_SEARCH_TERM_LENGTH + " characters");
+        }
+        boolean validFrom = isEmpty(birthdateFrom) || isIsoDate(birthdateFrom);
+        boolean validTo = isEmpty(birthdateTo) || isIsoDate(birthdateTo);
+        if (!validFrom) {
+            errors.add("birthdateFrom must be a valid date in yyyy-MM-dd format");
+        }
+        if (!validTo) {
+            errors.add("birthdateTo must be a valid date in yyyy-MM-dd format");
+        }
+        if (validFrom && validTo && !isEmpty(birthdateFrom) && !isEmpty(birthdateTo) && birthdateFrom.compareTo(birthdateTo) > 0) {
+            errors.add("birthdateFrom must not be after birthdateTo");
+        }
+        if (!SEARCH_SORTS.contains(sort)) {
+            errors.add("sort must be one of " + String.join(", ", SEARCH_SORTS));
+        } else if (sort.equals("relevance") && isEmpty(name) && isEmpty(address)) {
+            errors.add("sort by relevance requires name or address");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            errors.add("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ValidationResult.of(errors);
+    }
+
+    private boolean isCustomerField(String name) {
+        for (CustomerFieldEnum field : CustomerFieldEnum.values()) {
+            if (field.getField().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    // Checked by hand so malformed input is rejected without the cost of a DateTimeParseException
+    private boolean isIsoDate(String value) {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return false;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < 1 || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        return day <= YearMonth.of(year, month).lengthOfMonth();
+    }
+
+    private int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
         }
+        return result;
     }
 }
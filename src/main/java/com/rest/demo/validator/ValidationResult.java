@@ -0,0 +1,39 @@
+package com.rest.demo.validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ValidationResult {
+    private static final ValidationResult VALID = new ValidationResult(Collections.emptyList());
+
+    private final List<String> errors;
+
+    private ValidationResult(List<String> errors) {
+        this.errors = errors;
+    }
+
+    public static ValidationResult valid() {
+        return VALID;
+    }
+
+    public static ValidationResult of(List<String> errors) {
+        return errors.isEmpty() ? VALID : new ValidationResult(Collections.unmodifiableList(new ArrayList<>(errors)));
+    }
+
+    public static ValidationResult error(String error) {
+        return new ValidationResult(Collections.singletonList(error));
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public String getMessage() {
+        return String.join(", ", errors);
+    }
+}
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS customer (
+    id        BIGINT PRIMARY KEY,
+    name      VARCHAR(255),
+    address   VARCHAR(255),
+    birthdate DATE
+);
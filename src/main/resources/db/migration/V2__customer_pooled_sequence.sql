@@ -0,0 +1,4 @@
+-- Customer ids are allocated in blocks of 50 by Hibernate's pooled optimizer,
+-- so the sequence increment must match the entity's allocationSize.
+CREATE SEQUENCE IF NOT EXISTS customer_seq INCREMENT BY 50;
+SELECT setval('customer_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM customer), 1));
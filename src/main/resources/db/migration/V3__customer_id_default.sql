@@ -0,0 +1,3 @@
+-- Lets non-Hibernate writers (R2DBC, bulk SQL) insert without supplying an id.
+-- Each nextval reserves a whole allocation block, so these ids never overlap Hibernate's pooled ranges.
+ALTER TABLE customer ALTER COLUMN id SET DEFAULT nextval('customer_seq');
@@ -0,0 +1,6 @@
+-- Trigram indexes serve both the ILIKE prefix/substring filters and the fuzzy % operator used by /customer/search.
+-- Built concurrently so writes to customer continue during the build; this runs outside a transaction (see the .conf
+-- file). A build that fails leaves an invalid index behind, which must be dropped before the migration is retried.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_trgm_idx ON customer USING gin (name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_address_trgm_idx ON customer USING gin (address gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_birthdate_idx ON customer (birthdate);
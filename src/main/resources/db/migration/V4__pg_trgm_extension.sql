@@ -0,0 +1,2 @@
+-- Trigram matching for /customer/search. Kept apart from the indexes, which are built outside a transaction.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
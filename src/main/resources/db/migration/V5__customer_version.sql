@@ -0,0 +1,2 @@
+-- Optimistic-locking version, exposed to clients as the customer's ETag
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
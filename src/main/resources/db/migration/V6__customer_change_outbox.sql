@@ -0,0 +1,34 @@
+-- Transactional outbox behind GET /customer/changes. A row trigger records every write in the writer's own
+-- transaction, whichever path made it (JPA, batch ingest, R2DBC or bulk SQL).
+CREATE TABLE IF NOT EXISTS customer_change (
+    seq         BIGSERIAL PRIMARY KEY,
+    operation   VARCHAR(16) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    name        VARCHAR(255),
+    address     VARCHAR(255),
+    birthdate   DATE,
+    version     BIGINT,
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- changed_at only grows with seq, so a BRIN index is enough for retention deletes and costs next to nothing to maintain
+CREATE INDEX IF NOT EXISTS customer_change_changed_at_idx ON customer_change USING brin (changed_at);
+
+CREATE OR REPLACE FUNCTION record_customer_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO customer_change (operation, customer_id, name, address, birthdate, version)
+        VALUES ('deleted', OLD.id, OLD.name, OLD.address, OLD.birthdate, OLD.version);
+        RETURN OLD;
+    END IF;
+    INSERT INTO customer_change (operation, customer_id, name, address, birthdate, version)
+    VALUES (CASE TG_OP WHEN 'INSERT' THEN 'created' ELSE 'updated' END,
+            NEW.id, NEW.name, NEW.address, NEW.birthdate, NEW.version);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS customer_change_outbox ON customer;
+CREATE TRIGGER customer_change_outbox
+    AFTER INSERT OR UPDATE OR DELETE ON customer
+    FOR EACH ROW EXECUTE PROCEDURE record_customer_change();
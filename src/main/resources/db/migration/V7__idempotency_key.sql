@@ -0,0 +1,14 @@
+-- Optional durable copy of Idempotency-Key responses (demo.idempotency.persistent), so a retry that lands on another
+-- instance or after a restart still replays instead of writing twice.
+-- A row without a status reserves its key while the first request holding it runs, so a duplicate arriving at another
+-- instance meanwhile is turned away instead of running alongside it
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    scope_hash  CHAR(64) PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    status      INTEGER,
+    headers     TEXT,
+    body        BYTEA,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_key_created_at_idx ON idempotency_key USING brin (created_at);
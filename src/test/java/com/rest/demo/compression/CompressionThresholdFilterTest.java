@@ -0,0 +1,108 @@
+package com.rest.demo.compression;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionThresholdFilterTest {
+    private final CompressionThresholdFilter filter = new CompressionThresholdFilter(16);
+
+    @Test
+    public void doFilter_givenBodyWithinThreshold_thenSendWithContentLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AssertingChain chain = new AssertingChain(body(10));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/customer/1"), response, chain);
+
+        assertFalse(chain.committedAfterFlush);
+        assertEquals("10", response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertArrayEquals(body(10), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void doFilter_givenBodyPastThreshold_thenStreamWithoutContentLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AssertingChain chain = new AssertingChain(body(10), body(10));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/customer"), response, chain);
+
+        assertTrue(chain.committedAfterFlush);
+        assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        byte[] expected = Arrays.copyOf(body(10), 20);
+        System.arraycopy(body(10), 0, expected, 10, 10);
+        assertArrayEquals(expected, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void doFilter_givenWriter_thenCountEncodedBytes() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/customer/1"), response, (req, res) -> {
+            res.setCharacterEncoding("UTF-8");
+            res.getWriter().write("Bogor ü");
+        });
+
+        assertEquals("8", response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertEquals("Bogor ü", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void doFilter_givenAsyncHandler_thenReleaseHeldBytesAndStreamTheRest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/customer/export");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletOutputStream[] output = new ServletOutputStream[1];
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.startAsync();
+            output[0] = res.getOutputStream();
+            output[0].write(body(4));
+        });
+        output[0].write(body(4));
+
+        assertTrue(response.isCommitted());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertEquals(8, response.getContentAsByteArray().length);
+    }
+
+    private byte[] body(int length) {
+        byte[] body = new byte[length];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    // Writes each chunk and flushes as the message converters do, recording whether the flush reached the client
+    private static final class AssertingChain implements FilterChain {
+        private final byte[][] chunks;
+        private boolean committedAfterFlush;
+
+        AssertingChain(byte[]... chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+            for (byte[] chunk : chunks) {
+                response.getOutputStream().write(chunk);
+            }
+            response.getOutputStream().flush();
+            response.flushBuffer();
+            committedAfterFlush = response.isCommitted();
+        }
+    }
+}
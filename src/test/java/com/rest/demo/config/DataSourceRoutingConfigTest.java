@@ -0,0 +1,153 @@
+package com.rest.demo.config;
+
+import com.rest.demo.datasource.ReadYourWrites;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.service.CustomerService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Two embedded Postgres instances stand in for the primary and the replica; nothing replicates between them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class DataSourceRoutingConfigTest {
+    private static final EmbeddedPostgres primary;
+    private static final EmbeddedPostgres replica;
+
+    static {
+        try {
+            primary = EmbeddedPostgres.start();
+            replica = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Flyway.configure().dataSource(replica.getPostgresDatabase()).load().migrate();
+    }
+
+    @DynamicPropertySource
+    static void dataSources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> primary.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + primary.getPort() + "/postgres");
+        registry.add("demo.datasource.replica.url", () -> replica.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    @Autowired
+    private CacheManager cacheManager;
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+
+    @BeforeEach
+    public void setUp() {
+        primaryJdbc = new JdbcTemplate(primaryDataSource);
+        replicaJdbc = new JdbcTemplate(replicaDataSource);
+        primaryJdbc.update("DELETE FROM customer");
+        replicaJdbc.update("DELETE FROM customer");
+        cacheManager.getCache(CacheConfig.CUSTOMER_CACHE).clear();
+        primaryJdbc.update("INSERT INTO customer (name, address, birthdate) VALUES ('Primary Only', 'Jakarta', DATE '2001-01-01')");
+        // Writes through the replica's own pool would be refused, as it is read-only
+        new JdbcTemplate(replica.getPostgresDatabase())
+                .update("INSERT INTO customer (name, address, birthdate) VALUES ('Replica Only', 'Bandung', DATE '2002-02-02')");
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    public void readOnlyTransaction_thenReadFromReplica() {
+        assertEquals(List.of("Replica Only"), names(customerService.findAllCustomerModels(page())));
+        assertEquals(List.of("Replica Only"),
+                customerService.findCustomersAfter(null, 10).getContent().stream().map(Customer::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void writeTransaction_thenWriteToPrimary() {
+        customerService.addCustomer(new Customer(null, "Written", "Surabaya", LocalDate.of(2003, 3, 3)));
+
+        assertEquals(1, primaryJdbc.queryForObject("SELECT count(*) FROM customer WHERE name = 'Written'", Integer.class));
+        assertEquals(0, replicaJdbc.queryForObject("SELECT count(*) FROM customer WHERE name = 'Written'", Integer.class));
+    }
+
+    @Test
+    public void readOnlyTransaction_givenPinnedToPrimary_thenReadFromPrimary() {
+        ReadYourWrites.pinToPrimary();
+        try {
+            assertEquals(List.of("Primary Only"), names(customerService.findAllCustomerModels(page())));
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    @Test
+    public void findCustomerById_givenLaggingReplica_thenLoadAndCacheFromPrimary() {
+        laggingReplica();
+
+        assertEquals("Renamed", customerService.findCustomerById(1000L).map(Customer::getName).orElse(null));
+        assertEquals(Optional.empty(), customerService.findCustomerById(1001L));
+        assertEquals("Renamed", cacheManager.getCache(CacheConfig.CUSTOMER_CACHE).get(1000L, Customer.class).getName());
+        assertNull(cacheManager.getCache(CacheConfig.CUSTOMER_CACHE).get(1001L));
+    }
+
+    @Test
+    public void findCustomersByIds_givenLaggingReplica_thenLoadAndCacheFromPrimary() {
+        laggingReplica();
+
+        Map<Long, Customer> customers = customerService.findCustomersByIds(List.of(1000L, 1001L));
+
+        assertEquals(List.of(1000L), List.copyOf(customers.keySet()));
+        assertEquals("Renamed", customers.get(1000L).getName());
+        assertEquals("Renamed", cacheManager.getCache(CacheConfig.CUSTOMER_CACHE).get(1000L, Customer.class).getName());
+        assertNull(cacheManager.getCache(CacheConfig.CUSTOMER_CACHE).get(1001L));
+    }
+
+    // The replica still has customer 1000 under its old name and customer 1001, which the primary has deleted
+    private void laggingReplica() {
+        primaryJdbc.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1000, 'Renamed', 'Jakarta', DATE '2001-01-01')");
+        JdbcTemplate replicaWriter = new JdbcTemplate(replica.getPostgresDatabase());
+        replicaWriter.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1000, 'Stale', 'Jakarta', DATE '2001-01-01')");
+        replicaWriter.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1001, 'Deleted', 'Bandung', DATE '2002-02-02')");
+    }
+
+    private PageRequest page() {
+        return PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    private List<String> names(List<CustomerModel> customers) {
+        return customers.stream().map(CustomerModel::getName).collect(Collectors.toList());
+    }
+}
@@ -2,31 +2,61 @@ package com.rest.demo.controller;
 
 import com.rest.demo.controller.CustomerController;
 import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.converter.CustomerExportWriter;
 import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.enums.ImportFormatEnum;
+import com.rest.demo.metrics.CustomerMetrics;
 import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.BatchItemResponse;
+import com.rest.demo.model.CustomerImportReport;
+import com.rest.demo.model.CustomerIngestStats;
+import com.rest.demo.model.CustomerIngestStatus;
+import com.rest.demo.model.CustomerLookupModel;
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerPatch;
 import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
+import com.rest.demo.model.CustomerSearchHit;
 import com.rest.demo.model.ErrorResponse;
+import com.rest.demo.service.CustomerChangeService;
+import com.rest.demo.service.CustomerImportService;
+import com.rest.demo.service.CustomerIngestService;
 import com.rest.demo.service.CustomerService;
 import com.rest.demo.validator.CustomerValidator;
+import com.rest.demo.validator.ValidationResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.persistence.EntityNotFoundException;
-import javax.validation.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -40,6 +70,21 @@ public class CustomerControllerTest {
     @Mock
     private CustomerValidator customerValidator;
 
+    @Mock
+    private CustomerExportWriter customerExportWriter;
+
+    @Mock
+    private CustomerMetrics customerMetrics;
+
+    @Mock
+    private CustomerIngestService customerIngestService;
+
+    @Mock
+    private CustomerChangeService customerChangeService;
+
+    @Mock
+    private CustomerImportService customerImportService;
+
     @InjectMocks
     private CustomerController customerController;
     CustomerModel customerModel;
@@ -67,6 +112,15 @@ public class CustomerControllerTest {
         listCustomerResponse.setStatus("Success");
         errorResponse = new ErrorResponse();
         errorResponse.setStatus("Failed");
+
+        when(customerValidator.validateRequest(any())).thenReturn(ValidationResult.valid());
+        when(customerValidator.validateId(any())).thenReturn(ValidationResult.valid());
+        when(customerValidator.validateLimit(anyInt())).thenReturn(ValidationResult.valid());
+        when(customerValidator.validateBatch(any())).thenReturn(ValidationResult.valid());
+        when(customerValidator.validateIds(any())).thenReturn(ValidationResult.valid());
+        when(customerValidator.validateFields(any())).thenReturn(ValidationResult.valid());
+        when(customerConverter.toETag(any(), any())).thenReturn("\"0\"");
+        when(customerValidator.validateSearch(any(), any(), any(), any(), any(), anyInt())).thenReturn(ValidationResult.valid());
     }
 
     @Test
@@ -74,12 +128,11 @@ public class CustomerControllerTest {
         customer.setId(1L);
         customerResponse.setStatus("Success");
         customerResponse.setData(customerModel);
-        doNothing().when(customerValidator).validateRequest(customerModel);
         when(customerConverter.toEntity(customerModel)).thenReturn(customer);
         when(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(customerResponse);
         when(customerService.addCustomer(customer)).thenReturn(customer);
 
-        ResponseEntity<?> response = customerController.createCustomer(customerModel);
+        ResponseEntity<?> response = customerController.createCustomer(customerModel, null);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         verify(customerValidator, times(1)).validateRequest(customerModel);
@@ -88,21 +141,40 @@ public class CustomerControllerTest {
         verify(customerService, times(1)).addCustomer(customer);
     }
 
+    @Test
+    public void createCustomer_givenClientId_thenCreateWithGeneratedId() {
+        customerModel.setId(5L);
+        customer.setId(5L);
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerService.addCustomer(any())).thenAnswer(invocation -> {
+            Customer created = invocation.getArgument(0);
+            assertNull(created.getId());
+            created.setId(1L);
+            return created;
+        });
+
+        ResponseEntity<?> response = customerController.createCustomer(customerModel, null);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(customerService, times(1)).addCustomer(customer);
+        verify(customerConverter, times(1)).toResponse(ResponseEnum.SUCCESS.getMessage(), customer);
+    }
+
     @Test
     public void createCustomer_givenInvalidRequest_thenReturnBadRequestStatus() {
         customer.setId(1L);
         customerModel.setName("");
 
         String errorMessage = "name must not be empty";
-        ValidationException validationException = new ValidationException(errorMessage);
-        errorResponse.setMessage(errorMessage);
 
-        doThrow(validationException).when(customerValidator).validateRequest(customerModel);
+        when(customerValidator.validateRequest(customerModel)).thenReturn(ValidationResult.error(errorMessage));
 
-        ResponseEntity<?> response = customerController.createCustomer(customerModel);
+        ResponseEntity<?> response = customerController.createCustomer(customerModel, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(errorResponse.getMessage(), errorMessage);
+        assertEquals(errorMessage, ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerMetrics, times(1)).recordFailure("createCustomer", "validation");
+        verify(customerService, never()).addCustomer(any());
     }
 
     @Test
@@ -114,39 +186,105 @@ public class CustomerControllerTest {
         RuntimeException exception = new RuntimeException(errorMessage);
         errorResponse.setMessage(errorMessage);
 
-        doThrow(exception).when(customerValidator).validateRequest(customerModel);
+        when(customerValidator.validateRequest(customerModel)).thenThrow(exception);
 
-        ResponseEntity<?> response = customerController.createCustomer(customerModel);
+        ResponseEntity<?> response = customerController.createCustomer(customerModel, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorResponse.getMessage(), errorMessage);
+        verify(customerMetrics, times(1)).recordFailure("createCustomer", "RuntimeException");
+    }
+
+    @Test
+    public void createCustomer_givenRespondAsync_thenReturnAcceptedStatus() {
+        CustomerIngestStatus status = new CustomerIngestStatus("abc", "queued", null, null);
+        CustomerResponse<CustomerIngestStatus> ingestResponse = new CustomerResponse<>();
+        ingestResponse.setData(status);
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerIngestService.enqueue(customer)).thenReturn(Optional.of(status));
+        when(customerConverter.toIngestResponse(ResponseEnum.SUCCESS.getMessage(), status)).thenReturn(ingestResponse);
+
+        ResponseEntity<?> response = customerController.createCustomer(customerModel, "respond-async");
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/customer/ingest/abc", response.getHeaders().getLocation().toString());
+        assertEquals(ingestResponse, response.getBody());
+        verify(customerService, never()).addCustomer(any());
+    }
+
+    @Test
+    public void createCustomer_givenRespondAsyncAndFullQueue_thenReturnTooManyRequestsStatus() {
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerIngestService.enqueue(customer)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.createCustomer(customerModel, "respond-async");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(customerMetrics, times(1)).recordFailure("createCustomer", "queue_full");
+        verify(customerService, never()).addCustomer(any());
+    }
+
+    @Test
+    public void getIngestStatus_givenUnknownTrackingId_thenReturnNotFoundStatus() {
+        when(customerIngestService.findStatus("abc")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.getIngestStatus("abc");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(customerMetrics, times(1)).recordFailure("getIngestStatus", "not_found");
+    }
+
+    @Test
+    public void getIngestStats_thenReturnQueueStats() {
+        CustomerIngestStats stats = new CustomerIngestStats(10, 2, 5, 3, 0, 1);
+        CustomerResponse<CustomerIngestStats> statsResponse = new CustomerResponse<>();
+        statsResponse.setData(stats);
+        when(customerIngestService.getStats()).thenReturn(stats);
+        when(customerConverter.toIngestStatsResponse(ResponseEnum.SUCCESS.getMessage(), stats)).thenReturn(statsResponse);
+
+        ResponseEntity<?> response = customerController.getIngestStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(statsResponse, response.getBody());
+    }
+
+    @Test
+    public void streamChangesAsEvents_givenLastEventId_thenResumeFromLastEventId() {
+        when(customerChangeService.subscribe(any(), any())).thenReturn(new CustomerChangeService.Subscription());
+
+        SseEmitter emitter = customerController.streamChangesAsEvents(3L, 9L);
+
+        assertNotNull(emitter);
+        verify(customerChangeService, times(1)).subscribe(eq(9L), any());
+    }
+
+    @Test
+    public void streamChangesAsNdjson_givenAfter_thenSubscribeAndReturnNdjsonStream() {
+        when(customerChangeService.subscribe(any(), any())).thenReturn(new CustomerChangeService.Subscription());
+
+        ResponseEntity<ResponseBodyEmitter> response = customerController.streamChangesAsNdjson(3L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(customerChangeService, times(1)).subscribe(eq(3L), any());
     }
 
     @Test
     public void getAllCustomers_givenPage_thenReturnCustomersBasedOnPage() {
-        customer.setId(1L);
-        Customer customer2 = customer;
-        customer2.setId(2L);
-        Customer customer3 = customer;
-        customer3.setId(3L);
-        Customer customer4 = customer;
-        customer4.setId(4L);
-        customerList = new ArrayList<>();
-        customerList.add(customer);
-        customerList.add(customer2);
-        customerList.add(customer3);
-        customerList.add(customer4);
-
-        List<Customer> customerListPage0 = customerList.subList(0,2);
+        List<CustomerModel> customerModels = List.of(
+                new CustomerModel(1L, "John", "Jakarta", "2001-01-01"),
+                new CustomerModel(2L, "Jane", "Bandung", "2002-02-02"));
         Pageable page = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
 
-        when(customerService.findAllCustomers(page)).thenReturn(customerListPage0);
+        when(customerService.findAllCustomerModels(page)).thenReturn(customerModels);
 
-        ResponseEntity<?> response = customerController.getAllCustomers(1,2);
+        ResponseEntity<?> response = customerController.getAllCustomers(1,2, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(customerConverter, times(1)).toResponse(ResponseEnum.SUCCESS.getMessage(), customerListPage0);
-        verify(customerService, times(1)).findAllCustomers(page);
+        verify(customerConverter, times(1)).toModelResponse(ResponseEnum.SUCCESS.getMessage(), customerModels);
+        verify(customerService, times(1)).findAllCustomerModels(page);
+        verify(customerService, never()).findAllCustomers(any());
     }
 
     @Test
@@ -156,8 +294,8 @@ public class CustomerControllerTest {
         RuntimeException exception = new RuntimeException(errorMessage);
         errorResponse.setMessage(errorMessage);
 
-        when(customerService.findAllCustomers(page)).thenThrow(exception);
-        ResponseEntity<?> response = customerController.getAllCustomers(1,2);
+        when(customerService.findAllCustomerModels(page)).thenThrow(exception);
+        ResponseEntity<?> response = customerController.getAllCustomers(1,2, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorResponse.getMessage(), errorMessage);
@@ -167,31 +305,33 @@ public class CustomerControllerTest {
     public void getCustomerById_givenValidId_thenReturnCustomer() {
         customer.setId(1L);
 
-        customerResponse.setStatus("Success");
-        customerResponse.setData(customerModel);
+        CustomerResponse<Customer> entityResponse = new CustomerResponse<>();
+        entityResponse.setStatus("Success");
+        entityResponse.setData(customer);
 
-        when(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(customerResponse);
-        when(customerService.findCustomerById(1L)).thenReturn(customer);
+        when(customerConverter.toEntityResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(entityResponse);
+        when(customerService.findCustomerById(1L)).thenReturn(Optional.of(customer));
 
-        ResponseEntity<?> response = customerController.getCustomerById(1L);
+        ResponseEntity<?> response = customerController.getCustomerById(1L, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(customerConverter, times(1)).toResponse(ResponseEnum.SUCCESS.getMessage(), customer);
+        assertEquals(entityResponse, response.getBody());
+        verify(customerConverter, times(1)).toEntityResponse(ResponseEnum.SUCCESS.getMessage(), customer);
+        verify(customerConverter, never()).toModel(any(Customer.class));
         verify(customerService, times(1)).findCustomerById(1L);
     }
 
     @Test
     public void createCustomer_givenInvalidId_thenReturnNotFoundStatus() {
-        String errorMessage = "Customer with id 2 is not found";
-        EntityNotFoundException exception = new EntityNotFoundException(errorMessage);
-        errorResponse.setMessage(errorMessage);
+        String errorMessage = "Customer with id: 2 is not found";
 
-        when(customerService.findCustomerById(2L)).thenThrow(exception);
+        when(customerService.findCustomerById(2L)).thenReturn(Optional.empty());
 
-        ResponseEntity<?> response = customerController.getCustomerById(2L);
+        ResponseEntity<?> response = customerController.getCustomerById(2L, null, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals(errorResponse.getMessage(), errorMessage);
+        assertEquals(errorMessage, ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerMetrics, times(1)).recordFailure("getCustomerById", "not_found");
     }
 
     @Test
@@ -202,7 +342,7 @@ public class CustomerControllerTest {
 
         when(customerService.findCustomerById(2L)).thenThrow(exception);
 
-        ResponseEntity<?> response = customerController.getCustomerById(2L);
+        ResponseEntity<?> response = customerController.getCustomerById(2L, null, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorResponse.getMessage(), errorMessage);
@@ -214,13 +354,11 @@ public class CustomerControllerTest {
         customerModel.setId(1L);
         customerResponse.setStatus("Success");
         customerResponse.setData(customerModel);
-        doNothing().when(customerValidator).validateRequest(customerModel);
-        doNothing().when(customerValidator).validateId(customerModel);
         when(customerConverter.toEntity(customerModel)).thenReturn(customer);
         when(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(customerResponse);
-        when(customerService.updateCustomer(customer)).thenReturn(customer);
+        when(customerService.updateCustomer(customer, null)).thenReturn(Optional.of(customer));
 
-        ResponseEntity<?> response = customerController.updateCustomer(customerModel);
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(customerValidator, times(1)).validateRequest(customerModel);
@@ -232,15 +370,14 @@ public class CustomerControllerTest {
     @Test
     public void updateCustomer_givenEmptyId_thenReturnBadRequestStatus() {
         String errorMessage = "id must not be empty";
-        ValidationException validationException = new ValidationException(errorMessage);
-        errorResponse.setMessage(errorMessage);
 
-        doThrow(validationException).when(customerValidator).validateId(customerModel);
+        when(customerValidator.validateId(customerModel)).thenReturn(ValidationResult.error(errorMessage));
 
-        ResponseEntity<?> response = customerController.updateCustomer(customerModel);
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(errorResponse.getMessage(), errorMessage);
+        assertEquals(errorMessage, ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerService, never()).updateCustomer(any(), any());
     }
 
     @Test
@@ -252,9 +389,9 @@ public class CustomerControllerTest {
         RuntimeException exception = new RuntimeException(errorMessage);
         errorResponse.setMessage(errorMessage);
 
-        doThrow(exception).when(customerValidator).validateId(customerModel);
+        when(customerValidator.validateId(customerModel)).thenThrow(exception);
 
-        ResponseEntity<?> response = customerController.updateCustomer(customerModel);
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorResponse.getMessage(), errorMessage);
@@ -265,19 +402,15 @@ public class CustomerControllerTest {
         customerModel.setId(2L);
         customer.setId(2L);
 
-        doNothing().when(customerValidator).validateId(customerModel);
-        doNothing().when(customerValidator).validateRequest(customerModel);
         when(customerConverter.toEntity(customerModel)).thenReturn(customer);
         String errorMessage = "Customer with id: 2 is not found";
-        EntityNotFoundException exception = new EntityNotFoundException(errorMessage);
-        errorResponse.setMessage(errorMessage);
 
-        when(customerService.updateCustomer(customer)).thenThrow(exception);
+        when(customerService.updateCustomer(customer, null)).thenReturn(Optional.empty());
 
-        ResponseEntity<?> response = customerController.updateCustomer(customerModel);
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals(errorResponse.getMessage(), errorMessage);
+        assertEquals(errorMessage, ((ErrorResponse) response.getBody()).getMessage());
     }
 
     @Test
@@ -287,7 +420,7 @@ public class CustomerControllerTest {
         customerResponse.setData(customerModel);
 
         when(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(customerResponse);
-        when(customerService.deleteCustomer(customer.getId())).thenReturn(customer);
+        when(customerService.deleteCustomer(customer.getId())).thenReturn(Optional.of(customer));
 
         ResponseEntity<?> response = customerController.deleteCustomer(customer.getId());
 
@@ -299,15 +432,13 @@ public class CustomerControllerTest {
     @Test
     public void deleteCustomer_givenInvalidId_thenReturnNotFoundStatus() {
         String errorMessage = "Customer with id: 2 is not found";
-        EntityNotFoundException exception = new EntityNotFoundException(errorMessage);
-        errorResponse.setMessage(errorMessage);
 
-        when(customerService.deleteCustomer(2L)).thenThrow(exception);
+        when(customerService.deleteCustomer(2L)).thenReturn(Optional.empty());
 
         ResponseEntity<?> response = customerController.deleteCustomer(2L);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals(errorResponse.getMessage(), errorMessage);
+        assertEquals(errorMessage, ((ErrorResponse) response.getBody()).getMessage());
     }
 
     @Test
@@ -323,4 +454,515 @@ public class CustomerControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorResponse.getMessage(), errorMessage);
     }
+
+    @Test
+    public void getCustomersAfter_givenAfterId_thenReturnCustomersAfterId() {
+        customer.setId(11L);
+        Slice<Customer> slice = new SliceImpl<>(List.of(customer), PageRequest.of(0, 1), true);
+        CustomerResponse<List<Customer>> entityResponse = new CustomerResponse<>();
+        entityResponse.setNext("next");
+
+        when(customerService.findCustomersAfter(10L, 1)).thenReturn(slice);
+        when(customerConverter.toEntityResponse(ResponseEnum.SUCCESS.getMessage(), slice)).thenReturn(entityResponse);
+
+        ResponseEntity<?> response = customerController.getCustomersAfter(10L, null, 1, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(entityResponse, response.getBody());
+        verify(customerValidator, times(1)).validateLimit(1);
+        verify(customerService, times(1)).findCustomersAfter(10L, 1);
+    }
+
+    @Test
+    public void getCustomersAfter_givenCursor_thenUseDecodedCursor() {
+        Slice<Customer> slice = new SliceImpl<>(new ArrayList<>());
+
+        when(customerConverter.decodeCursor("aWQ6MjA")).thenReturn(Optional.of(20L));
+        when(customerService.findCustomersAfter(20L, 5)).thenReturn(slice);
+
+        ResponseEntity<?> response = customerController.getCustomersAfter(10L, "aWQ6MjA", 5, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(customerService, times(1)).findCustomersAfter(20L, 5);
+        verify(customerConverter, times(1)).toEntityResponse(ResponseEnum.SUCCESS.getMessage(), slice);
+    }
+
+    @Test
+    public void getCustomersAfter_givenInvalidCursor_thenReturnBadRequestStatus() {
+        String errorMessage = "cursor is invalid";
+        when(customerConverter.decodeCursor("invalid")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.getCustomersAfter(null, "invalid", 5, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(errorMessage, ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerService, never()).findCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    public void getCustomersAfter_givenException_thenReturnInternalServerError() {
+        when(customerService.findCustomersAfter(null, 5)).thenThrow(new RuntimeException("Something went wrong"));
+
+        ResponseEntity<?> response = customerController.getCustomersAfter(null, null, 5, null);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    public void createCustomers_givenValidBatch_thenReturnCreatedStatus() {
+        CustomerModel customerModel2 = new CustomerModel(null, "Jane", "Bandung", "2002-02-02");
+        Customer customer2 = new Customer(null, "Jane", "Bandung", LocalDate.of(2002, 2, 2));
+        List<CustomerModel> batch = List.of(customerModel, customerModel2);
+        List<Customer> customers = List.of(customer, customer2);
+
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerConverter.toEntity(customerModel2)).thenReturn(customer2);
+        when(customerService.addCustomers(customers)).thenReturn(customers);
+
+        ResponseEntity<?> response = customerController.createCustomers(batch);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(customerService, times(1)).addCustomers(customers);
+        verify(customerConverter, times(1)).toBatchResponse(eq(ResponseEnum.SUCCESS.getMessage()), anyList());
+    }
+
+    @Test
+    public void createCustomers_givenClientIds_thenCreateWithGeneratedIds() {
+        CustomerModel customerModel2 = new CustomerModel(7L, "Jane", "Bandung", "2002-02-02");
+        Customer customer2 = new Customer(7L, "Jane", "Bandung", LocalDate.of(2002, 2, 2));
+        customerModel.setId(5L);
+        customer.setId(5L);
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerConverter.toEntity(customerModel2)).thenReturn(customer2);
+        when(customerService.addCustomers(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = customerController.createCustomers(List.of(customerModel, customerModel2));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Customer>> captor = ArgumentCaptor.forClass((Class) List.class);
+        verify(customerService, times(1)).addCustomers(captor.capture());
+        assertNull(captor.getValue().get(0).getId());
+        assertNull(captor.getValue().get(1).getId());
+    }
+
+    @Test
+    public void createCustomers_givenPartiallyInvalidBatch_thenReturnMultiStatus() {
+        CustomerModel invalidModel = new CustomerModel(null, "", "Bandung", "2002-02-02");
+        List<CustomerModel> batch = List.of(invalidModel, customerModel);
+
+        when(customerValidator.validateRequest(invalidModel)).thenReturn(ValidationResult.error("name must not be empty"));
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerService.addCustomers(List.of(customer))).thenReturn(List.of(customer));
+
+        ResponseEntity<?> response = customerController.createCustomers(batch);
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchItemResponse>> captor = ArgumentCaptor.forClass((Class) List.class);
+        verify(customerConverter, times(1)).toBatchResponse(eq(ResponseEnum.FAILED.getMessage()), captor.capture());
+        List<BatchItemResponse> items = captor.getValue();
+        assertEquals(ResponseEnum.FAILED.getMessage(), items.get(0).getStatus());
+        assertEquals("name must not be empty", items.get(0).getMessage());
+        assertEquals(ResponseEnum.SUCCESS.getMessage(), items.get(1).getStatus());
+        assertEquals(1, items.get(1).getIndex());
+    }
+
+    @Test
+    public void createCustomers_givenEmptyBatch_thenReturnBadRequestStatus() {
+        List<CustomerModel> batch = new ArrayList<>();
+        when(customerValidator.validateBatch(batch)).thenReturn(ValidationResult.error("batch must not be empty"));
+
+        ResponseEntity<?> response = customerController.createCustomers(batch);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(customerService, never()).addCustomers(any());
+    }
+
+    @Test
+    public void exportCustomersAsNdjson_thenStreamThroughExportWriter() throws IOException {
+        ResponseEntity<?> response = customerController.exportCustomersAsNdjson(null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(outputStream);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(customerExportWriter, times(1)).writeNdjson(eq(outputStream), any());
+    }
+
+    @Test
+    public void exportCustomersAsCsv_thenStreamThroughExportWriter() throws IOException {
+        ResponseEntity<?> response = customerController.exportCustomersAsCsv(null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(outputStream);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(customerExportWriter, times(1)).writeCsv(eq(outputStream), any());
+    }
+
+    @Test
+    public void exportCustomersAsCsv_givenFields_thenStreamSelectedColumns() throws IOException {
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.ID, CustomerFieldEnum.NAME);
+        when(customerConverter.toFields("id,name")).thenReturn(fields);
+
+        ResponseEntity<?> response = customerController.exportCustomersAsCsv("id,name");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(outputStream);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(customerExportWriter, times(1)).writeModelsAsCsv(eq(outputStream), eq(fields), any());
+        verify(customerExportWriter, never()).writeCsv(any(), any());
+    }
+
+    @Test
+    public void exportCustomersAsNdjson_givenUnknownField_thenReturnBadRequestStatus() {
+        when(customerValidator.validateFields("email")).thenReturn(ValidationResult.error("email is not a customer field"));
+
+        ResponseEntity<?> response = customerController.exportCustomersAsNdjson("email");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("email is not a customer field", ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerMetrics, times(1)).recordFailure("exportCustomersAsNdjson", "validation");
+    }
+
+    @Test
+    public void getAllCustomers_givenFields_thenReturnNarrowedModels() {
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.NAME);
+        List<CustomerModel> customerModels = List.of(new CustomerModel(null, "John", null, null));
+        Pageable page = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        when(customerConverter.toFields("name")).thenReturn(fields);
+        when(customerService.findAllCustomerModels(page, fields)).thenReturn(customerModels);
+
+        ResponseEntity<?> response = customerController.getAllCustomers(1, 2, "name");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(customerConverter, times(1)).toModelResponse(ResponseEnum.SUCCESS.getMessage(), customerModels);
+        verify(customerService, never()).findAllCustomerModels(page);
+    }
+
+    @Test
+    public void getCustomersAfter_givenFields_thenFetchOnePastLimit() {
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.ADDRESS);
+        List<CustomerModel> customerModels = List.of(new CustomerModel(11L, null, "Jakarta", null));
+        when(customerConverter.toFields("address")).thenReturn(fields);
+        when(customerService.findCustomerModelsAfter(10L, 1, fields)).thenReturn(customerModels);
+
+        ResponseEntity<?> response = customerController.getCustomersAfter(10L, null, 1, "address");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(customerConverter, times(1)).toModelResponse(ResponseEnum.SUCCESS.getMessage(), customerModels, 1, fields);
+        verify(customerService, never()).findCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    public void getCustomerById_givenFields_thenReturnNarrowedCustomerWithETag() {
+        customer.setId(1L);
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.NAME);
+        when(customerService.findCustomerById(1L)).thenReturn(Optional.of(customer));
+        when(customerConverter.toFields("name")).thenReturn(fields);
+        when(customerConverter.toResponse(ResponseEnum.SUCCESS.getMessage(), customer, fields)).thenReturn(customerResponse);
+
+        ResponseEntity<?> response = customerController.getCustomerById(1L, null, "name", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"0\"", response.getHeaders().getETag());
+        assertEquals(customerResponse, response.getBody());
+        verify(customerConverter, never()).toEntityResponse(any(), any(Customer.class));
+    }
+
+    @Test
+    public void getCustomersByIds_givenIds_thenReturnLookupResponse() {
+        customer.setId(1L);
+        List<Long> ids = List.of(1L, 2L);
+        Map<Long, Customer> customers = Map.of(1L, customer);
+        CustomerResponse<CustomerLookupModel> lookupResponse = new CustomerResponse<>();
+
+        when(customerService.findCustomersByIds(ids)).thenReturn(customers);
+        when(customerConverter.toLookupResponse(ResponseEnum.SUCCESS.getMessage(), ids, customers)).thenReturn(lookupResponse);
+
+        ResponseEntity<?> response = customerController.getCustomersByIds(ids);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(lookupResponse, response.getBody());
+        verify(customerService, times(1)).findCustomersByIds(ids);
+    }
+
+    @Test
+    public void getCustomersByIdsWithLimit_givenIdsAndLimit_thenReturnBadRequestStatus() {
+        ResponseEntity<?> response = customerController.getCustomersByIdsWithLimit();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("ids cannot be combined with limit", ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerService, never()).findCustomersByIds(any());
+        verify(customerService, never()).findCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    public void lookupCustomers_givenInvalidIds_thenReturnBadRequestStatus() {
+        List<Long> ids = new ArrayList<>();
+        when(customerValidator.validateIds(ids)).thenReturn(ValidationResult.error("ids must not be empty"));
+
+        ResponseEntity<?> response = customerController.lookupCustomers(ids);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("ids must not be empty", ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerMetrics, times(1)).recordFailure("lookupCustomers", "validation");
+        verify(customerService, never()).findCustomersByIds(any());
+    }
+
+    @Test
+    public void searchCustomers_givenFiltersAndCursor_thenSearchAfterCursor() {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("John", null, null, null, true);
+        CustomerSearchCursor cursor = new CustomerSearchCursor(450, 2L, true);
+        List<CustomerSearchHit> hits = new ArrayList<>();
+
+        when(customerConverter.toSearchCriteria("John", null, null, null, "relevance")).thenReturn(criteria);
+        when(customerConverter.decodeSearchCursor("cursor")).thenReturn(Optional.of(cursor));
+        when(customerService.searchCustomers(criteria, cursor, 20)).thenReturn(hits);
+        when(customerConverter.toSearchResponse(ResponseEnum.SUCCESS.getMessage(), hits, 20, true)).thenReturn(listCustomerResponse);
+
+        ResponseEntity<?> response = customerController.searchCustomers("John", null, null, null, "relevance", "cursor", 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(listCustomerResponse, response.getBody());
+        verify(customerService, times(1)).searchCustomers(criteria, cursor, 20);
+    }
+
+    @Test
+    public void searchCustomers_givenCursorFromOtherSort_thenReturnBadRequestStatus() {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("John", null, null, null, false);
+        when(customerConverter.toSearchCriteria("John", null, null, null, "id")).thenReturn(criteria);
+        when(customerConverter.decodeSearchCursor("cursor")).thenReturn(Optional.of(new CustomerSearchCursor(450, 2L, true)));
+
+        ResponseEntity<?> response = customerController.searchCustomers("John", null, null, null, "id", "cursor", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("cursor does not match sort", ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerService, never()).searchCustomers(any(), any(), anyInt());
+    }
+
+    @Test
+    public void searchCustomers_givenInvalidFilters_thenReturnBadRequestStatus() {
+        when(customerValidator.validateSearch("Jo", null, null, null, "id", 20))
+                .thenReturn(ValidationResult.error("name must be at least 3 characters"));
+
+        ResponseEntity<?> response = customerController.searchCustomers("Jo", null, null, null, "id", null, 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("name must be at least 3 characters", ((ErrorResponse) response.getBody()).getMessage());
+        verify(customerService, never()).searchCustomers(any(), any(), anyInt());
+    }
+
+    @Test
+    public void searchCustomers_givenInvalidCursor_thenReturnBadRequestStatus() {
+        when(customerConverter.decodeSearchCursor("invalid")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.searchCustomers("John", null, null, null, "id", "invalid", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("cursor is invalid", ((ErrorResponse) response.getBody()).getMessage());
+    }
+
+    @Test
+    public void getCustomerById_givenMatchingIfNoneMatch_thenReturnNotModifiedWithoutBody() {
+        customer.setId(1L);
+        customer.setVersion(3L);
+        when(customerService.findCustomerById(1L)).thenReturn(Optional.of(customer));
+        when(customerConverter.toETag(eq(customer), any())).thenReturn("\"3\"");
+
+        ResponseEntity<?> response = customerController.getCustomerById(1L, "\"2\", W/\"3\"", null, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
+        assertNull(response.getBody());
+        verify(customerConverter, never()).toEntityResponse(any(), any(Customer.class));
+    }
+
+    @Test
+    public void getCustomerById_givenStaleIfNoneMatch_thenReturnBodyWithETag() {
+        customer.setId(1L);
+        when(customerService.findCustomerById(1L)).thenReturn(Optional.of(customer));
+        when(customerConverter.toETag(eq(customer), any())).thenReturn("\"3\"");
+        CustomerResponse<Customer> entityResponse = new CustomerResponse<>();
+        when(customerConverter.toEntityResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(entityResponse);
+
+        ResponseEntity<?> response = customerController.getCustomerById(1L, "\"2\"", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals(entityResponse, response.getBody());
+    }
+
+    @Test
+    public void getCustomerById_givenCborAcceptAndJsonETag_thenReturnCborBodyWithItsOwnETag() {
+        customer.setId(1L);
+        when(customerService.findCustomerById(1L)).thenReturn(Optional.of(customer));
+        when(customerConverter.toETag(customer, "application/cbor")).thenReturn("\"3-cbor\"");
+        CustomerResponse<Customer> entityResponse = new CustomerResponse<>();
+        when(customerConverter.toEntityResponse(ResponseEnum.SUCCESS.getMessage(), customer)).thenReturn(entityResponse);
+
+        ResponseEntity<?> response = customerController.getCustomerById(1L, "\"3\"", null, "application/cbor");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3-cbor\"", response.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
+        assertEquals(entityResponse, response.getBody());
+    }
+
+    @Test
+    public void updateCustomer_givenMatchingIfMatch_thenUpdateConditionally() {
+        customer.setId(1L);
+        customerModel.setId(1L);
+        Customer updated = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        updated.setVersion(4L);
+        when(customerConverter.parseETag("\"3\"")).thenReturn(Optional.of(3L));
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerService.updateCustomer(customer, 3L)).thenReturn(Optional.of(updated));
+        when(customerConverter.toETag(eq(updated), any())).thenReturn("\"4\"");
+
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, "\"3\"", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        verify(customerService, never()).customerExists(any());
+    }
+
+    @Test
+    public void updateCustomer_givenStaleIfMatch_thenReturnPreconditionFailed() {
+        customer.setId(1L);
+        customerModel.setId(1L);
+        when(customerConverter.parseETag("\"3\"")).thenReturn(Optional.of(3L));
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerService.updateCustomer(customer, 3L)).thenReturn(Optional.empty());
+        when(customerService.customerExists(1L)).thenReturn(true);
+
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, "\"3\"", null);
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(customerMetrics, times(1)).recordFailure("updateCustomer", "precondition_failed");
+    }
+
+    @Test
+    public void updateCustomer_givenIfMatchForMissingCustomer_thenReturnNotFound() {
+        customer.setId(2L);
+        customerModel.setId(2L);
+        when(customerConverter.parseETag("\"3\"")).thenReturn(Optional.of(3L));
+        when(customerConverter.toEntity(customerModel)).thenReturn(customer);
+        when(customerService.updateCustomer(customer, 3L)).thenReturn(Optional.empty());
+        when(customerService.customerExists(2L)).thenReturn(false);
+
+        ResponseEntity<?> response = customerController.updateCustomer(customerModel, "\"3\"", null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void patchCustomer_givenValidPatch_thenReturnPatchedCustomer() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setAddress("Bandung");
+        Customer changes = new Customer(1L, null, "Bandung", null);
+        Customer patched = new Customer(1L, "John", "Bandung", LocalDate.of(2001, 1, 1));
+        when(customerValidator.validatePatch(patch)).thenReturn(ValidationResult.valid());
+        when(customerConverter.toEntity(1L, patch)).thenReturn(changes);
+        when(customerService.patchCustomer(changes, null)).thenReturn(Optional.of(patched));
+        when(customerConverter.toResponse("Success", patched)).thenReturn(customerResponse);
+
+        ResponseEntity<?> response = customerController.patchCustomer(1L, patch, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(customerResponse, response.getBody());
+        verify(customerService, never()).updateCustomer(any(), any());
+    }
+
+    @Test
+    public void patchCustomer_givenInvalidPatch_thenReturnBadRequestStatus() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setName(null);
+        when(customerValidator.validatePatch(patch)).thenReturn(ValidationResult.error("name must not be empty"));
+
+        ResponseEntity<?> response = customerController.patchCustomer(1L, patch, null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(customerService, never()).patchCustomer(any(), any());
+        verify(customerMetrics, times(1)).recordFailure("patchCustomer", "validation");
+    }
+
+    @Test
+    public void patchCustomer_givenStaleIfMatch_thenReturnPreconditionFailed() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setAddress("Bandung");
+        Customer changes = new Customer(1L, null, "Bandung", null);
+        when(customerValidator.validatePatch(patch)).thenReturn(ValidationResult.valid());
+        when(customerConverter.parseETag("\"3\"")).thenReturn(Optional.of(3L));
+        when(customerConverter.toEntity(1L, patch)).thenReturn(changes);
+        when(customerService.patchCustomer(changes, 3L)).thenReturn(Optional.empty());
+        when(customerService.customerExists(1L)).thenReturn(true);
+
+        ResponseEntity<?> response = customerController.patchCustomer(1L, patch, "\"3\"", null);
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    public void patchCustomer_givenMissingCustomer_thenReturnNotFoundStatus() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setAddress("Bandung");
+        Customer changes = new Customer(2L, null, "Bandung", null);
+        when(customerValidator.validatePatch(patch)).thenReturn(ValidationResult.valid());
+        when(customerConverter.toEntity(2L, patch)).thenReturn(changes);
+        when(customerService.patchCustomer(changes, null)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.patchCustomer(2L, patch, null, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(customerService, never()).customerExists(any());
+    }
+
+    @Test
+    public void importCustomers_givenNdjsonUpload_thenReturnReportWithLocation() throws Exception {
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[0]);
+        CustomerImportReport report = new CustomerImportReport();
+        report.setImportId("import-1");
+        CustomerResponse<CustomerImportReport> importResponse = new CustomerResponse<>();
+        when(customerImportService.importCustomers(body, ImportFormatEnum.NDJSON, null)).thenReturn(report);
+        when(customerConverter.toImportResponse("Success", report)).thenReturn(importResponse);
+
+        ResponseEntity<?> response = customerController
+                .importCustomers("application/x-ndjson; charset=UTF-8", body).getCallable().call();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("/customer/import/import-1", response.getHeaders().getLocation().toString());
+        assertEquals(importResponse, response.getBody());
+    }
+
+    @Test
+    public void importCustomers_givenCsvWithoutRequiredColumns_thenReturnBadRequestStatus() throws Exception {
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[0]);
+        when(customerImportService.importCustomers(body, ImportFormatEnum.CSV, null))
+                .thenThrow(new IllegalArgumentException("CSV header must contain name, address, birthdate"));
+
+        ResponseEntity<?> response = customerController.importCustomers("text/csv", body).getCallable().call();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(customerMetrics, times(1)).recordFailure("importCustomers", "validation");
+    }
+
+    @Test
+    public void getImportReport_givenUnknownImport_thenReturnNotFoundStatus() {
+        when(customerImportService.findReport("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.getImportReport("missing");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void getImportRejects_givenExpiredImport_thenReturnNotFoundStatus() {
+        when(customerImportService.findRejects("expired")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = customerController.getImportRejects("expired");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
 }
@@ -1,19 +1,37 @@
 package com.rest.demo.converter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.CustomerLookupModel;
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerPatch;
 import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
+import com.rest.demo.model.CustomerSearchHit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(SpringExtension.class)
 public class CustomerConverterTest {
@@ -35,6 +53,19 @@ public class CustomerConverterTest {
         assertEquals(LocalDate.parse(birthdate), customer.getBirthdate());
     }
 
+    @Test
+    public void toEntity_givenPatchWithBirthdateOnly_thenLeaveOtherFieldsNull() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setBirthdate("2001-01-01");
+
+        Customer customer = converter.toEntity(1L, patch);
+
+        assertEquals(1L, customer.getId());
+        assertNull(customer.getName());
+        assertNull(customer.getAddress());
+        assertEquals(LocalDate.of(2001, 1, 1), customer.getBirthdate());
+    }
+
     @Test
     public void toEntity_givenCustomerModelWithoutId_thenConvertToCustomer() {
         String name = "John";
@@ -110,4 +141,203 @@ public class CustomerConverterTest {
             assertEquals(expectedModel.getBirthdate(), actualModel.getBirthdate());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void toResponse_givenSliceWithNext_thenSetNextCursor() {
+        List<Customer> customers = Arrays.asList(
+                new Customer(1L, "John", "Jakarta", LocalDate.now()),
+                new Customer(2L, "Jane", "Jakarta", LocalDate.now())
+        );
+        Slice<Customer> slice = new SliceImpl<>(customers, PageRequest.of(0, 2), true);
+
+        CustomerResponse<List<CustomerModel>> response = converter.toResponse("Success", slice);
+
+        assertEquals(2, response.getData().size());
+        assertEquals(Optional.of(2L), converter.decodeCursor(response.getNext()));
+    }
+
+    @Test
+    public void toResponse_givenLastSlice_thenNextIsNull() {
+        List<Customer> customers = Arrays.asList(new Customer(1L, "John", "Jakarta", LocalDate.now()));
+        Slice<Customer> slice = new SliceImpl<>(customers, PageRequest.of(0, 2), false);
+
+        CustomerResponse<List<CustomerModel>> response = converter.toResponse("Success", slice);
+
+        assertNull(response.getNext());
+    }
+
+    @Test
+    public void decodeCursor_givenInvalidCursor_thenReturnEmpty() {
+        assertTrue(converter.decodeCursor("not a cursor").isEmpty());
+        assertTrue(converter.decodeCursor("a").isEmpty());
+        assertTrue(converter.decodeCursor(converter.encodeCursor(null)).isEmpty());
+    }
+
+    @Test
+    public void toLookupResponse_givenFoundAndMissingIds_thenKeepRequestOrder() {
+        Customer customer1 = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        Customer customer3 = new Customer(3L, "Jane", "Bandung", LocalDate.of(2002, 2, 2));
+
+        CustomerResponse<CustomerLookupModel> response = converter.toLookupResponse("Success",
+                List.of(3L, 2L, 1L, 2L), Map.of(1L, customer1, 3L, customer3));
+
+        assertEquals("Success", response.getStatus());
+        assertEquals(3L, response.getData().getFound().get(0).getId());
+        assertEquals(1L, response.getData().getFound().get(1).getId());
+        assertEquals(List.of(2L), response.getData().getMissing());
+    }
+
+    @Test
+    public void toModelResponse_givenModels_thenWrapWithoutCopying() {
+        List<CustomerModel> customerModels = List.of(new CustomerModel(1L, "John", "Jakarta", "2001-01-01"));
+
+        CustomerResponse<List<CustomerModel>> response = converter.toModelResponse("Success", customerModels);
+
+        assertEquals("Success", response.getStatus());
+        assertEquals(customerModels, response.getData());
+    }
+
+    @Test
+    public void toSearchCriteria_givenEmptyParams_thenTreatAsAbsent() {
+        CustomerSearchCriteria criteria = converter.toSearchCriteria("", "Jakarta", "1990-01-01", null, "relevance");
+
+        assertNull(criteria.getName());
+        assertEquals("Jakarta", criteria.getAddress());
+        assertEquals(LocalDate.of(1990, 1, 1), criteria.getBirthdateFrom());
+        assertNull(criteria.getBirthdateTo());
+        assertTrue(criteria.isSortByRelevance());
+    }
+
+    @Test
+    public void toSearchResponse_givenExtraHit_thenTrimAndSetNextCursor() {
+        List<CustomerSearchHit> hits = List.of(
+                new CustomerSearchHit(new CustomerModel(5L, "John", "Jakarta", "2001-01-01"), 900),
+                new CustomerSearchHit(new CustomerModel(2L, "Johnathan", "Jakarta", "2001-01-01"), 450),
+                new CustomerSearchHit(new CustomerModel(7L, "Jon", "Jakarta", "2001-01-01"), 300));
+
+        CustomerResponse<List<CustomerModel>> response = converter.toSearchResponse("Success", hits, 2, true);
+
+        assertEquals(2, response.getData().size());
+        CustomerSearchCursor cursor = converter.decodeSearchCursor(response.getNext()).orElseThrow();
+        assertEquals(450, cursor.getScore());
+        assertEquals(2L, cursor.getId());
+        assertTrue(cursor.isSortByRelevance());
+    }
+
+    @Test
+    public void toSearchResponse_givenLastPage_thenNextIsNull() {
+        List<CustomerSearchHit> hits = List.of(new CustomerSearchHit(new CustomerModel(5L, "John", "Jakarta", "2001-01-01"), 0));
+
+        assertNull(converter.toSearchResponse("Success", hits, 2, false).getNext());
+    }
+
+    @Test
+    public void decodeSearchCursor_givenInvalidCursor_thenReturnEmpty() {
+        assertTrue(converter.decodeSearchCursor("not a cursor").isEmpty());
+        assertTrue(converter.decodeSearchCursor(converter.encodeCursor(1L)).isEmpty());
+        assertTrue(converter.decodeSearchCursor(converter.encodeSearchCursor(new CustomerSearchCursor(1, 2L, false)).substring(1)).isEmpty());
+    }
+
+    @Test
+    public void decodeSearchCursor_givenIdSortCursor_thenKeepSort() {
+        CustomerSearchCursor cursor = converter.decodeSearchCursor(
+                converter.encodeSearchCursor(new CustomerSearchCursor(0, 9L, false))).orElseThrow();
+
+        assertEquals(9L, cursor.getId());
+        assertFalse(cursor.isSortByRelevance());
+    }
+
+    @Test
+    public void toETag_givenVersion_thenReturnQuotedVersion() {
+        Customer customer = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        customer.setVersion(7L);
+
+        String eTag = converter.toETag(customer, null);
+
+        assertEquals("\"7\"", eTag);
+        assertEquals(Optional.of(7L), converter.parseETag(eTag));
+    }
+
+    @Test
+    public void toETag_givenAccept_thenTagTheNegotiatedEncoding() {
+        Customer customer = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        customer.setVersion(7L);
+
+        assertEquals("\"7\"", converter.toETag(customer, "*/*"));
+        assertEquals("\"7\"", converter.toETag(customer, "application/json, application/cbor;q=0.5"));
+        assertEquals("\"7-cbor\"", converter.toETag(customer, "application/cbor, application/json;q=0.5"));
+        assertEquals("\"7-smile\"", converter.toETag(customer, "application/x-jackson-smile"));
+        assertEquals("\"7-protobuf\"", converter.toETag(customer, "text/html, application/x-protobuf"));
+        assertEquals("\"7\"", converter.toETag(customer, "not a media type"));
+        assertEquals(Optional.of(7L), converter.parseETag("\"7-protobuf\""));
+        assertTrue(converter.parseETag("\"-cbor\"").isEmpty());
+    }
+
+    @Test
+    public void parseETag_givenWeakOrMalformedETag_thenReturnEmpty() {
+        assertTrue(converter.parseETag("W/\"7\"").isEmpty());
+        assertTrue(converter.parseETag("7").isEmpty());
+        assertTrue(converter.parseETag("\"\"").isEmpty());
+        assertTrue(converter.parseETag("\"7\", \"8\"").isEmpty());
+    }
+
+    @Test
+    public void toFields_givenNull_thenSelectEveryField() {
+        assertEquals(EnumSet.allOf(CustomerFieldEnum.class), converter.toFields(null));
+    }
+
+    @Test
+    public void toFields_givenNames_thenSelectThem() {
+        assertEquals(EnumSet.of(CustomerFieldEnum.NAME, CustomerFieldEnum.BIRTHDATE), converter.toFields("birthdate, name"));
+    }
+
+    @Test
+    public void toModelResponse_givenRowPastLimitAndNoIdField_thenSetCursorAndDropIds() {
+        List<CustomerModel> models = Arrays.asList(new CustomerModel(4L, "John", null, null), new CustomerModel(5L, "Jane", null, null));
+
+        CustomerResponse<List<CustomerModel>> response = converter.toModelResponse("Success", models, 1,
+                EnumSet.of(CustomerFieldEnum.NAME));
+
+        assertEquals(1, response.getData().size());
+        assertNull(response.getData().get(0).getId());
+        assertEquals("John", response.getData().get(0).getName());
+        assertEquals(converter.encodeCursor(4L), response.getNext());
+    }
+
+    @Test
+    public void toModelResponse_givenLastPage_thenLeaveCursorUnset() {
+        List<CustomerModel> models = List.of(new CustomerModel(4L, "John", null, null));
+
+        CustomerResponse<List<CustomerModel>> response = converter.toModelResponse("Success", models, 1,
+                EnumSet.of(CustomerFieldEnum.ID, CustomerFieldEnum.NAME));
+
+        assertEquals(4L, response.getData().get(0).getId());
+        assertNull(response.getNext());
+    }
+
+    @Test
+    public void toResponse_givenFields_thenClearUnselectedFields() {
+        Customer customer = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+
+        CustomerModel model = converter.toResponse("Success", customer, EnumSet.of(CustomerFieldEnum.ADDRESS)).getData();
+
+        assertNull(model.getId());
+        assertNull(model.getName());
+        assertEquals("Jakarta", model.getAddress());
+        assertNull(model.getBirthdate());
+    }
+
+    @Test
+    public void toResponse_givenFields_thenLeaveOutOnlyUnselectedFields() throws JsonProcessingException {
+        Customer customer = new Customer(1L, null, "Jakarta", LocalDate.of(2001, 1, 1));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.ID, CustomerFieldEnum.NAME, CustomerFieldEnum.ADDRESS);
+
+        assertEquals("{\"status\":\"Success\",\"data\":{\"id\":1,\"address\":\"Jakarta\"}}",
+                objectMapper.writeValueAsString(converter.toResponse("Success", customer, fields)));
+        assertEquals("{\"status\":\"Success\",\"data\":{\"id\":1,\"name\":null,\"address\":\"Jakarta\","
+                        + "\"birthdate\":\"2001-01-01\"}}",
+                objectMapper.writeValueAsString(converter.toResponse("Success", customer)));
+    }
+}
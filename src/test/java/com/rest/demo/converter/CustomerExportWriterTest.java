@@ -0,0 +1,90 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.CustomerChange;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.SparseCustomerModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CustomerExportWriterTest {
+
+    private final CustomerExportWriter writer = new CustomerExportWriter(new ObjectMapper(),
+            new CustomerJsonSerializer(), new CustomerConverter());
+
+    private final List<Customer> customers = Arrays.asList(
+            new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1)),
+            new Customer(2L, "Jane \"JJ\"", "Jl. Sudirman, Jakarta", LocalDate.of(2002, 2, 2))
+    );
+
+    @Test
+    public void writeNdjson_givenCustomers_thenWriteOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        writer.writeNdjson(outputStream, customers::forEach);
+
+        assertEquals("{\"id\":1,\"name\":\"John\",\"address\":\"Jakarta\",\"birthdate\":\"2001-01-01\"}\n"
+                        + "{\"id\":2,\"name\":\"Jane \\\"JJ\\\"\",\"address\":\"Jl. Sudirman, Jakarta\",\"birthdate\":\"2002-02-02\"}\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void toNdjson_givenChanges_thenWriteOneJsonObjectPerLine() throws IOException {
+        List<CustomerChange> changes = List.of(
+                new CustomerChange(7L, "created", new CustomerModel(1L, "John", "Jakarta", "2001-01-01"), 0L),
+                new CustomerChange(8L, "deleted", new CustomerModel(1L, "John", "Jakarta", "2001-01-01"), 0L));
+
+        String ndjson = new String(writer.toNdjson(changes), StandardCharsets.UTF_8);
+
+        assertEquals("{\"seq\":7,\"operation\":\"created\",\"customer\":{\"id\":1,\"name\":\"John\",\"address\":\"Jakarta\",\"birthdate\":\"2001-01-01\"},\"version\":0}\n"
+                        + "{\"seq\":8,\"operation\":\"deleted\",\"customer\":{\"id\":1,\"name\":\"John\",\"address\":\"Jakarta\",\"birthdate\":\"2001-01-01\"},\"version\":0}\n",
+                ndjson);
+    }
+
+    @Test
+    public void writeCsv_givenCustomers_thenWriteHeaderAndEscapedRows() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        writer.writeCsv(outputStream, customers::forEach);
+
+        assertEquals("id,name,address,birthdate\n"
+                        + "1,John,Jakarta,2001-01-01\n"
+                        + "2,\"Jane \"\"JJ\"\"\",\"Jl. Sudirman, Jakarta\",2002-02-02\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeModelsAsNdjson_givenSparseModels_thenLeaveOutUnselectedFields() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        List<CustomerModel> models = List.of(new SparseCustomerModel(1L, "John", null, null),
+                new SparseCustomerModel(2L, "Jane", null, null));
+
+        writer.writeModelsAsNdjson(outputStream, models::forEach);
+
+        assertEquals("{\"id\":1,\"name\":\"John\"}\n{\"id\":2,\"name\":\"Jane\"}\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeModelsAsCsv_givenFields_thenWriteOnlySelectedColumnsInHeaderOrder() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        List<CustomerModel> models = List.of(new CustomerModel(null, "Jane \"JJ\"", null, "2002-02-02"));
+
+        writer.writeModelsAsCsv(outputStream, EnumSet.of(CustomerFieldEnum.BIRTHDATE, CustomerFieldEnum.NAME), models::forEach);
+
+        assertEquals("name,birthdate\n"
+                        + "\"Jane \"\"JJ\"\"\",2002-02-02\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
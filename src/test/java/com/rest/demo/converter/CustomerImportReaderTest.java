@@ -0,0 +1,89 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.enums.ImportFormatEnum;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CustomerImportReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void next_givenExportCsv_thenReadQuotedFieldsAndIgnoreId() throws IOException {
+        CustomerImportReader reader = reader(ImportFormatEnum.CSV,
+                "id,name,address,birthdate\n1,John,\"Jl. Sudirman, 1\",2001-01-01\r\n2,\"Jane \"\"J\"\"\",\"Line\nbreak\",2002-02-02\n");
+
+        CustomerImportReader.ImportRecord first = reader.next();
+        CustomerImportReader.ImportRecord second = reader.next();
+
+        assertEquals(2, first.getLine());
+        assertNull(first.getModel().getId());
+        assertEquals("John", first.getModel().getName());
+        assertEquals("Jl. Sudirman, 1", first.getModel().getAddress());
+        assertEquals("2001-01-01", first.getModel().getBirthdate());
+        assertEquals(3, second.getLine());
+        assertEquals("Jane \"J\"", second.getModel().getName());
+        assertEquals("Line\nbreak", second.getModel().getAddress());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void next_givenReorderedColumnsAndBlankLine_thenMapByHeader() throws IOException {
+        CustomerImportReader reader = reader(ImportFormatEnum.CSV, "birthdate,address,name\n\n2001-01-01,Jakarta,John\n");
+
+        CustomerImportReader.ImportRecord record = reader.next();
+
+        assertEquals(3, record.getLine());
+        assertEquals("John", record.getModel().getName());
+        assertEquals("Jakarta", record.getModel().getAddress());
+    }
+
+    @Test
+    public void next_givenWrongFieldCount_thenReturnErrorAndContinue() throws IOException {
+        CustomerImportReader reader = reader(ImportFormatEnum.CSV, "name,address,birthdate\nJohn,Jakarta\nJane,Bandung,2002-02-02\n");
+
+        CustomerImportReader.ImportRecord broken = reader.next();
+        CustomerImportReader.ImportRecord next = reader.next();
+
+        assertNull(broken.getModel());
+        assertEquals("expected 3 fields but found 2", broken.getError());
+        assertEquals("John,Jakarta", broken.getRaw());
+        assertEquals("Jane", next.getModel().getName());
+    }
+
+    @Test
+    public void constructor_givenHeaderWithoutRequiredColumns_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> reader(ImportFormatEnum.CSV, "id,name\n1,John\n"));
+    }
+
+    @Test
+    public void next_givenNdjsonWithMalformedLine_thenReturnErrorAndContinue() throws IOException {
+        CustomerImportReader reader = reader(ImportFormatEnum.NDJSON,
+                "{\"id\":7,\"name\":\"John\",\"address\":\"Jakarta\",\"birthdate\":\"2001-01-01\"}\n{\"name\":\n\n"
+                        + "{\"name\":\"Jane\",\"address\":\"Bandung\",\"birthdate\":\"2002-02-02\"}");
+
+        CustomerImportReader.ImportRecord first = reader.next();
+        CustomerImportReader.ImportRecord broken = reader.next();
+        CustomerImportReader.ImportRecord last = reader.next();
+
+        assertNull(first.getModel().getId());
+        assertEquals("John", first.getModel().getName());
+        assertEquals(2, broken.getLine());
+        assertNull(broken.getModel());
+        assertEquals("{\"name\":", broken.getRaw());
+        assertEquals(4, last.getLine());
+        assertEquals("Jane", last.getModel().getName());
+        assertNull(reader.next());
+    }
+
+    private CustomerImportReader reader(ImportFormatEnum format, String content) throws IOException {
+        return new CustomerImportReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, objectMapper);
+    }
+}
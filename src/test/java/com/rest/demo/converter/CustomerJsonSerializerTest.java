@@ -0,0 +1,140 @@
+package com.rest.demo.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.ResponseEnum;
+import com.rest.demo.model.BatchItemResponse;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.ErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CustomerJsonSerializerTest {
+    private final CustomerConverter converter = new CustomerConverter();
+    // The model path as it was serialized before the module existed
+    private final ObjectMapper modelMapper = new ObjectMapper();
+    private final ObjectMapper entityMapper = new ObjectMapper().registerModule(new CustomerJsonModule());
+
+    private final List<Customer> customers = List.of(
+            new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1)),
+            new Customer(2L, "Jane \"JJ\" \\ Doe", "Jl. Sudirman\nNo. 5, Jakarta", LocalDate.of(1900, 1, 1)),
+            new Customer(3L, "Siti Nurhaliza ☕ 日本", "\u0001 Bandung", LocalDate.of(2099, 12, 31)),
+            new Customer(4L, "Old", "Yogyakarta", LocalDate.of(1850, 6, 15)),
+            new Customer(Long.MAX_VALUE, "Future", "Surabaya", LocalDate.of(2150, 2, 28)));
+
+    @Test
+    public void serialize_givenSingleCustomer_thenMatchModelPathBytes() throws Exception {
+        for (Customer customer : customers) {
+            for (ResponseEnum status : ResponseEnum.values()) {
+                assertArrayEquals(modelMapper.writeValueAsBytes(converter.toResponse(status.getMessage(), customer)),
+                        entityMapper.writeValueAsBytes(converter.toEntityResponse(status.getMessage(), customer)));
+            }
+        }
+    }
+
+    @Test
+    public void serialize_givenSlice_thenMatchModelPathBytes() throws Exception {
+        SliceImpl<Customer> slice = new SliceImpl<>(customers, PageRequest.of(0, customers.size()), true);
+        SliceImpl<Customer> lastSlice = new SliceImpl<>(customers, PageRequest.of(0, customers.size()), false);
+        SliceImpl<Customer> emptySlice = new SliceImpl<>(new ArrayList<>(), PageRequest.of(0, 10), false);
+
+        for (SliceImpl<Customer> page : List.of(slice, lastSlice, emptySlice)) {
+            assertArrayEquals(modelMapper.writeValueAsBytes(converter.toResponse("Success", page)),
+                    entityMapper.writeValueAsBytes(converter.toEntityResponse("Success", page)));
+        }
+    }
+
+    @Test
+    public void serialize_givenUnknownStatusAndNullFields_thenMatchModelPathBytes() throws Exception {
+        Customer customer = new Customer(null, null, "Jakarta", LocalDate.of(2001, 1, 1));
+
+        assertArrayEquals(modelMapper.writeValueAsBytes(converter.toResponse("Partial", customer)),
+                entityMapper.writeValueAsBytes(converter.toEntityResponse("Partial", customer)));
+    }
+
+    @Test
+    public void serialize_givenNullFields_thenWriteExplicitNulls() throws Exception {
+        Customer customer = new Customer(1L, null, null, LocalDate.of(2001, 1, 1));
+
+        assertEquals("{\"status\":\"Success\",\"data\":{\"id\":1,\"name\":null,\"address\":null,"
+                        + "\"birthdate\":\"2001-01-01\"}}",
+                entityMapper.writeValueAsString(converter.toEntityResponse("Success", customer)));
+    }
+
+    @Test
+    public void serialize_givenEnvelopes_thenWriteStatusWithPreEncodedSerializer() throws Exception {
+        for (Class<?> envelope : List.of(CustomerResponse.class, ErrorResponse.class, CountedResponse.class)) {
+            BeanSerializerBase serializer = (BeanSerializerBase) entityMapper.getSerializerProviderInstance()
+                    .findValueSerializer(envelope);
+            Iterator<PropertyWriter> properties = serializer.properties();
+            BeanPropertyWriter status = null;
+            while (properties.hasNext()) {
+                BeanPropertyWriter property = (BeanPropertyWriter) properties.next();
+                if (property.getName().equals("status")) {
+                    status = property;
+                }
+            }
+            assertTrue(status != null && status.getSerializer() instanceof ResponseStatusJsonSerializer);
+        }
+        assertArrayEquals(modelMapper.writeValueAsBytes(new ErrorResponse("Failed", "Customer with id: 2 is not found")),
+                entityMapper.writeValueAsBytes(new ErrorResponse("Failed", "Customer with id: 2 is not found")));
+    }
+
+    @Test
+    public void serialize_givenModelData_thenMatchDefaultSerialization() throws Exception {
+        List<BatchItemResponse> items = List.of(
+                new BatchItemResponse(0, "Success", new CustomerModel(1L, "John", "Jakarta", "2001-01-01"), null),
+                new BatchItemResponse(1, "Failed", null, "name must not be empty"));
+
+        assertArrayEquals(modelMapper.writeValueAsBytes(converter.toBatchResponse("Failed", items)),
+                entityMapper.writeValueAsBytes(converter.toBatchResponse("Failed", items)));
+        assertArrayEquals(modelMapper.writeValueAsBytes(converter.toResponse("Success", customers)),
+                entityMapper.writeValueAsBytes(converter.toResponse("Success", customers)));
+    }
+
+    @Test
+    public void serialize_givenSmileAndCborGenerators_thenDecodeToModelPathTree() throws Exception {
+        SliceImpl<Customer> slice = new SliceImpl<>(customers, PageRequest.of(0, customers.size()), true);
+
+        for (ObjectMapper binaryMapper : List.of(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            ObjectMapper binaryEntityMapper = binaryMapper.copy().registerModule(new CustomerJsonModule());
+            byte[] modelBytes = binaryMapper.writeValueAsBytes(converter.toResponse("Success", slice));
+            byte[] entityBytes = binaryEntityMapper.writeValueAsBytes(converter.toEntityResponse("Success", slice));
+
+            assertEquals(binaryMapper.readTree(modelBytes), binaryMapper.readTree(entityBytes));
+        }
+    }
+
+    @Test
+    public void serialize_givenResponseWithExtraField_thenKeepEveryEnvelopeField() throws Exception {
+        CountedResponse response = new CountedResponse();
+        response.setStatus("Success");
+        response.setData(customers.get(0));
+
+        assertEquals("{\"status\":\"Success\",\"data\":{\"id\":1,\"name\":\"John\",\"address\":\"Jakarta\","
+                        + "\"birthdate\":\"2001-01-01\"},\"total\":1}",
+                entityMapper.writeValueAsString(response));
+    }
+
+    public static class CountedResponse extends CustomerResponse<Customer> {
+        public int getTotal() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.rest.demo.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.BatchItemResponse;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import com.rest.demo.model.ErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CustomerProtobufHttpMessageConverterTest {
+    private final CustomerProtobufHttpMessageConverter protobufConverter = new CustomerProtobufHttpMessageConverter();
+    private final CustomerConverter converter = new CustomerConverter();
+
+    @Test
+    public void write_givenEntityPage_thenEncodeStatusCustomersAndNext() throws IOException {
+        List<Customer> customers = List.of(
+                new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1)),
+                new Customer(2L, "Jane", "Bandung", LocalDate.of(1950, 6, 15)));
+        CustomerResponse<List<Customer>> response = converter.toEntityResponse("Success",
+                new SliceImpl<>(customers, PageRequest.of(0, 2), true));
+
+        CodedInputStream input = write(response);
+
+        assertEquals(tag(1, 0), input.readTag());
+        assertEquals(1, input.readEnum());
+        assertEquals(tag(2, 2), input.readTag());
+        assertCustomer(input, 1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        assertEquals(tag(2, 2), input.readTag());
+        assertCustomer(input, 2L, "Jane", "Bandung", LocalDate.of(1950, 6, 15));
+        assertEquals(tag(3, 2), input.readTag());
+        assertEquals(response.getNext(), input.readString());
+        assertTrue(input.isAtEnd());
+    }
+
+    @Test
+    public void write_givenSparseModel_thenLeaveOutNullFields() throws IOException {
+        CustomerResponse<CustomerModel> response = new CustomerResponse<>();
+        response.setStatus("Failed");
+        response.setData(new CustomerModel(null, "John", null, null));
+
+        CodedInputStream input = write(response);
+
+        assertEquals(tag(1, 0), input.readTag());
+        assertEquals(2, input.readEnum());
+        assertEquals(tag(2, 2), input.readTag());
+        int limit = input.pushLimit(input.readRawVarint32());
+        assertEquals(tag(2, 2), input.readTag());
+        assertEquals("John", input.readString());
+        assertTrue(input.isAtEnd());
+        input.popLimit(limit);
+        assertTrue(input.isAtEnd());
+    }
+
+    @Test
+    public void write_givenErrorResponse_thenEncodeStatusAndMessage() throws IOException {
+        CodedInputStream input = write(new ErrorResponse("Failed", "Customer with id: 2 is not found"));
+
+        assertEquals(tag(1, 0), input.readTag());
+        assertEquals(2, input.readEnum());
+        assertEquals(tag(2, 2), input.readTag());
+        assertEquals("Customer with id: 2 is not found", input.readString());
+        assertTrue(input.isAtEnd());
+    }
+
+    @Test
+    public void write_givenNonCustomerData_thenRefuseWithoutWriting() {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        CustomerResponse<List<BatchItemResponse>> response = converter.toBatchResponse("Success",
+                List.of(new BatchItemResponse(0, "Success", new CustomerModel(1L, "John", "Jakarta", "2001-01-01"), null)));
+
+        assertThrows(HttpMessageNotWritableException.class,
+                () -> protobufConverter.write(response, CustomerProtobufHttpMessageConverter.PROTOBUF, outputMessage));
+        assertEquals(0, outputMessage.getBodyAsBytes().length);
+    }
+
+    @Test
+    public void canRead_givenCustomerModel_thenReturnFalse() {
+        assertFalse(protobufConverter.canRead(CustomerModel.class, CustomerProtobufHttpMessageConverter.PROTOBUF));
+        assertTrue(protobufConverter.canWrite(CustomerResponse.class, CustomerProtobufHttpMessageConverter.PROTOBUF));
+    }
+
+    private CodedInputStream write(Object body) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        protobufConverter.write(body, CustomerProtobufHttpMessageConverter.PROTOBUF, outputMessage);
+        assertEquals(CustomerProtobufHttpMessageConverter.PROTOBUF, outputMessage.getHeaders().getContentType());
+        return CodedInputStream.newInstance(outputMessage.getBodyAsBytes());
+    }
+
+    private void assertCustomer(CodedInputStream input, long id, String name, String address, LocalDate birthdate)
+            throws IOException {
+        int limit = input.pushLimit(input.readRawVarint32());
+        assertEquals(tag(1, 0), input.readTag());
+        assertEquals(id, input.readInt64());
+        assertEquals(tag(2, 2), input.readTag());
+        assertEquals(name, input.readString());
+        assertEquals(tag(3, 2), input.readTag());
+        assertEquals(address, input.readString());
+        assertEquals(tag(4, 0), input.readTag());
+        assertEquals(birthdate.toEpochDay(), input.readSInt32());
+        assertTrue(input.isAtEnd());
+        input.popLimit(limit);
+    }
+
+    private int tag(int fieldNumber, int wireType) {
+        return fieldNumber << 3 | wireType;
+    }
+}
@@ -0,0 +1,53 @@
+package com.rest.demo.converter;
+
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.BatchItemResponse;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CustomerProtobufResponseAdviceTest {
+    private final CustomerProtobufResponseAdvice advice = new CustomerProtobufResponseAdvice();
+    private final CustomerConverter converter = new CustomerConverter();
+
+    @Test
+    public void beforeBodyWrite_givenNonCustomerData_thenNotAcceptable() {
+        CustomerResponse<List<BatchItemResponse>> response = converter.toBatchResponse("Success",
+                List.of(new BatchItemResponse(0, "Success", new CustomerModel(1L, "John", "Jakarta", "2001-01-01"), null)));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> write(response));
+
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, exception.getStatus());
+    }
+
+    @Test
+    public void beforeBodyWrite_givenCustomer_thenWriteUnchanged() {
+        CustomerResponse<Customer> response = converter.toEntityResponse("Success",
+                new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1)));
+
+        assertSame(response, write(response));
+    }
+
+    @Test
+    public void supports_givenOtherConverter_thenLeaveResponseAlone() {
+        assertTrue(advice.supports(null, CustomerProtobufHttpMessageConverter.class));
+        assertFalse(advice.supports(null, MappingJackson2HttpMessageConverter.class));
+    }
+
+    private Object write(Object body) {
+        return advice.beforeBodyWrite(body, null, CustomerProtobufHttpMessageConverter.PROTOBUF,
+                CustomerProtobufHttpMessageConverter.class, null, null);
+    }
+}
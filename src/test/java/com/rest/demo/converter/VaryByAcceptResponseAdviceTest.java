@@ -0,0 +1,42 @@
+package com.rest.demo.converter;
+
+import com.rest.demo.model.CustomerResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class VaryByAcceptResponseAdviceTest {
+    private final VaryByAcceptResponseAdvice advice = new VaryByAcceptResponseAdvice();
+
+    @Test
+    public void beforeBodyWrite_givenResponse_thenVaryByAccept() {
+        ServletServerHttpResponse response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        CustomerResponse<Object> body = new CustomerResponse<>();
+
+        assertSame(body, write(body, response));
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
+    }
+
+    @Test
+    public void beforeBodyWrite_givenVaryAlreadyNamingAccept_thenAddNothing() {
+        ServletServerHttpResponse response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        response.getHeaders().setVary(List.of("accept", HttpHeaders.ACCEPT_ENCODING));
+
+        write(new CustomerResponse<>(), response);
+
+        assertEquals(List.of("accept", HttpHeaders.ACCEPT_ENCODING), response.getHeaders().getVary());
+    }
+
+    private Object write(Object body, ServletServerHttpResponse response) {
+        return advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class,
+                null, response);
+    }
+}
@@ -0,0 +1,64 @@
+package com.rest.demo.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadYourWritesFilterTest {
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    public void doFilter_givenWriteRequest_thenSetReadPrimaryCookie() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/customer");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+    }
+
+    @Test
+    public void doFilter_givenReadWithUnexpiredCookie_thenPinToPrimaryDuringRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/customer/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() + 5000)));
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        filter.doFilter(request, new MockHttpServletResponse(), pinnedRecorder(pinned));
+
+        assertTrue(pinned.get());
+        assertFalse(ReadYourWrites.isPinnedToPrimary());
+    }
+
+    @Test
+    public void doFilter_givenReadWithExpiredOrInvalidCookie_thenUseReplica() throws Exception {
+        for (String value : new String[]{Long.toString(System.currentTimeMillis() - 1), "tomorrow",
+                "9999999999999999999", "99999999999999999999"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/customer/1");
+            request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, value));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            AtomicBoolean pinned = new AtomicBoolean();
+
+            filter.doFilter(request, response, pinnedRecorder(pinned));
+
+            assertFalse(pinned.get(), value);
+            assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+        }
+    }
+
+    private FilterChain pinnedRecorder(AtomicBoolean pinned) {
+        return (request, response) -> pinned.set(ReadYourWrites.isPinnedToPrimary());
+    }
+}
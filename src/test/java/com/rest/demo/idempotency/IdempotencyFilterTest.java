@@ -0,0 +1,239 @@
+package com.rest.demo.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyFilterTest {
+    private final IdempotencyFilter filter =
+            new IdempotencyFilter(new IdempotencyStore(100, Duration.ofHours(1), null), new ObjectMapper());
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    public void doFilter_givenRepeatedKey_thenReplayWithoutRunningChain() throws Exception {
+        FilterChain chain = created(null);
+        filter.doFilter(request("POST", "key-1", "{\"name\":\"A\"}"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", "key-1", "{\"name\":\"A\"}"), replayed, chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, replayed.getStatus());
+        assertEquals("{\"id\":1}", replayed.getContentAsString());
+        assertEquals("application/json", replayed.getContentType());
+        assertEquals("/customer/1", replayed.getHeader("Location"));
+        assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void doFilter_givenKeyReusedWithDifferentBody_thenRejectWithUnprocessableEntity() throws Exception {
+        FilterChain chain = created(null);
+        filter.doFilter(request("POST", "key-1", "{\"name\":\"A\"}"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", "key-1", "{\"name\":\"B\"}"), response, chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(422, response.getStatus());
+    }
+
+    @Test
+    public void doFilter_givenSameKeyOnOtherMethod_thenRunChain() throws Exception {
+        FilterChain chain = created(null);
+        filter.doFilter(request("POST", "key-1", "{}"), new MockHttpServletResponse(), chain);
+
+        filter.doFilter(request("PUT", "key-1", "{}"), new MockHttpServletResponse(), chain);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void doFilter_givenServerError_thenDoNotStore() throws Exception {
+        FilterChain failing = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(500);
+        };
+        filter.doFilter(request("POST", "key-1", "{}"), new MockHttpServletResponse(), failing);
+
+        filter.doFilter(request("POST", "key-1", "{}"), new MockHttpServletResponse(), failing);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void doFilter_givenBlankKey_thenRejectWithBadRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", " ", "{}"), response, created(null));
+
+        assertEquals(400, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void doFilter_givenNoKey_thenPassThrough() throws Exception {
+        FilterChain chain = created(null);
+        filter.doFilter(request("POST", null, "{}"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", null, "{}"), response, chain);
+
+        assertEquals(2, executions.get());
+        assertNull(response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void doFilter_givenKeyReservedByAnotherInstance_thenConflictWithoutRunningChain() throws Exception {
+        IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+        when(repository.find(anyString(), any())).thenReturn(Optional.empty());
+        when(repository.reserve(anyString(), anyString(), any(), any())).thenReturn(false);
+        IdempotencyFilter persistentFilter =
+                new IdempotencyFilter(new IdempotencyStore(100, Duration.ofHours(1), repository), new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        persistentFilter.doFilter(request("POST", "key-1", "{}"), response, created(null));
+
+        assertEquals(409, response.getStatus());
+        assertEquals(0, executions.get());
+        verify(repository, never()).release(anyString());
+    }
+
+    @Test
+    public void doFilter_givenServerErrorWithPersistentStore_thenReleaseReservation() throws Exception {
+        IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+        when(repository.find(anyString(), any())).thenReturn(Optional.empty());
+        when(repository.reserve(anyString(), anyString(), any(), any())).thenReturn(true);
+        IdempotencyFilter persistentFilter =
+                new IdempotencyFilter(new IdempotencyStore(100, Duration.ofHours(1), repository), new ObjectMapper());
+
+        persistentFilter.doFilter(request("POST", "key-1", "{}"), new MockHttpServletResponse(),
+                (req, res) -> ((HttpServletResponse) res).setStatus(503));
+
+        verify(repository).release(anyString());
+        verify(repository, never()).insert(anyString(), any());
+    }
+
+    @Test
+    public void doFilter_givenAsyncReader_thenDeliverBodyThroughReadListener() throws Exception {
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        FilterChain asyncReader = (req, res) -> {
+            ServletInputStream input = req.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[4];
+                    while (input.isReady() && !input.isFinished()) {
+                        int count = input.read(buffer);
+                        if (count > 0) {
+                            read.write(buffer, 0, count);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    ((HttpServletResponse) res).setStatus(201);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    ((HttpServletResponse) res).setStatus(500);
+                }
+            });
+        };
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", "key-1", "{\"name\":\"A\"}"), response, asyncReader);
+
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"name\":\"A\"}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void doFilter_givenConcurrentDuplicates_thenRunChainOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = created(release);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> run(chain));
+            while (executions.get() == 0) {
+                Thread.sleep(1);
+            }
+            Future<MockHttpServletResponse> second = executor.submit(() -> run(chain));
+            Future<MockHttpServletResponse> third = executor.submit(() -> run(chain));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals("{\"id\":1}", second.get(5, TimeUnit.SECONDS).getContentAsString());
+            assertEquals("true", third.get(5, TimeUnit.SECONDS).getHeader(IdempotencyFilter.REPLAYED_HEADER));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse run(FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "key-1", "{}"), response, chain);
+        return response;
+    }
+
+    // Reads the body as a controller would, optionally holding the request open until release is counted down
+    private FilterChain created(CountDownLatch release) {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            assertTrue(req.getInputStream().readAllBytes().length > 0);
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(201);
+            response.setContentType("application/json");
+            response.setHeader("Location", "/customer/1");
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletRequest request(String method, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/customer");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
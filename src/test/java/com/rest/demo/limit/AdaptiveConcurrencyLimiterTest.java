@@ -0,0 +1,106 @@
+package com.rest.demo.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long NOW = TimeUnit.SECONDS.toNanos(100);
+
+    @Test
+    public void tryAcquire_givenLimitReached_thenReject() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.releaseWithoutSample();
+
+        assertTrue(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    public void update_givenWindowAboveTolerance_thenBackOffOncePerRoundTrip() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000);
+        window(limiter, RTT, RTT, 1, NOW);
+
+        window(limiter, RTT * 10, RTT * 10, 1, NOW);
+        window(limiter, RTT * 10, RTT * 10, 1, NOW + RTT / 2);
+        assertEquals(90, limiter.getLimit());
+
+        window(limiter, RTT * 10, RTT * 10, 1, NOW + RTT * 10);
+        assertEquals(81, limiter.getLimit());
+    }
+
+    @Test
+    public void update_givenSteadyMixOfCacheHitsAndDatabaseReads_thenKeepGrowing() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        // Far from the mean of about 7ms, the 20ms reads alone would read as congestion
+        for (int i = 0; i < 20; i++) {
+            window(limiter, RTT / 10, RTT * 2, limiter.getLimit(), NOW + i * RTT);
+        }
+
+        assertTrue(limiter.getLimit() > 50, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    public void update_givenDatabaseReadsSlowDownWithinMix_thenBackOff() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000);
+        for (int i = 0; i < 10; i++) {
+            window(limiter, RTT / 10, RTT * 2, 1, NOW + i * RTT);
+        }
+        assertEquals(100, limiter.getLimit());
+
+        window(limiter, RTT / 10, RTT * 10, 1, NOW + RTT * 10);
+
+        assertEquals(90, limiter.getLimit());
+    }
+
+    @Test
+    public void update_givenDroppedRequest_thenBackOffDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(12, 10, 1000);
+
+        limiter.update(RTT, true, 1, NOW);
+        limiter.update(RTT, true, 1, NOW + TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void update_givenBusyAndHealthy_thenGrowByAboutOnePerLimitOfSamples() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.update(RTT, false, 10, NOW + i);
+        }
+
+        assertEquals(10, limiter.getLimit());
+        limiter.update(RTT, false, 10, NOW + 10);
+        assertEquals(11, limiter.getLimit());
+    }
+
+    @Test
+    public void update_givenMostlyIdle_thenKeepLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.update(RTT, false, 2, NOW + i);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    // One window of samples, seven in ten at hitRtt and the rest at readRtt
+    private void window(AdaptiveConcurrencyLimiter limiter, long hitRtt, long readRtt, int inFlight, long nowNanos) {
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.SAMPLE_WINDOW; i++) {
+            limiter.update(i % 10 < 7 ? hitRtt : readRtt, false, inFlight, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.rest.demo.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimitFilterTest {
+    private final AdaptiveConcurrencyLimiter readLimiter = new AdaptiveConcurrencyLimiter(1, 1, 10);
+    private final AdaptiveConcurrencyLimiter writeLimiter = new AdaptiveConcurrencyLimiter(20, 1, 100);
+
+    @Test
+    public void doFilter_givenReadBudgetExhausted_thenRejectWithServiceUnavailable() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, new ObjectMapper());
+        readLimiter.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean handled = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/customer/1"), response, (req, res) -> handled.set(true));
+
+        assertFalse(handled.get());
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("{\"status\":\"Failed\",\"message\":\"Server is overloaded, retry later\"}", response.getContentAsString());
+        assertEquals(1, readLimiter.getRejected());
+    }
+
+    @Test
+    public void doFilter_givenReadBudgetExhausted_thenStillAdmitWrites() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, new ObjectMapper());
+        readLimiter.tryAcquire();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/customer"), new MockHttpServletResponse(), chain);
+
+        assertTrue(chain.getRequest() != null);
+        assertEquals(0, writeLimiter.getInFlight());
+    }
+
+    @Test
+    public void doFilter_givenServerError_thenReleaseAndBackOff() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, new ObjectMapper());
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/customer"), new MockHttpServletResponse(),
+                (req, res) -> ((HttpServletResponse) res).setStatus(500));
+
+        assertEquals(0, writeLimiter.getInFlight());
+        assertEquals(18, writeLimiter.getLimit());
+    }
+}
@@ -0,0 +1,26 @@
+package com.rest.demo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CustomerMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomerMetrics customerMetrics = new CustomerMetrics(meterRegistry);
+
+    @Test
+    public void recordFailure_givenFailures_thenCountByOperationAndReason() {
+        customerMetrics.recordFailure("getCustomerById", "not_found");
+        customerMetrics.recordFailure("getCustomerById", "not_found");
+        customerMetrics.recordFailure("createCustomer", "validation");
+        customerMetrics.recordFailure("createCustomer", "RuntimeException");
+
+        assertEquals(2, meterRegistry.get(CustomerMetrics.FAILED_REQUESTS)
+                .tag("operation", "getCustomerById").tag("reason", "not_found").counter().count());
+        assertEquals(1, meterRegistry.get(CustomerMetrics.FAILED_REQUESTS)
+                .tag("operation", "createCustomer").tag("reason", "validation").counter().count());
+        assertEquals(1, meterRegistry.get(CustomerMetrics.FAILED_REQUESTS)
+                .tag("operation", "createCustomer").tag("reason", "RuntimeException").counter().count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.model.CustomerChange;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(CustomerChangeRepository.class)
+public class CustomerChangeRepositoryTest {
+    @Autowired
+    private CustomerChangeRepository customerChangeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void findAfter_givenCustomerWrites_thenReturnOneChangePerWriteInOrder() {
+        long start = customerChangeRepository.findLatestSeq();
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1, 'John', 'Jakarta', DATE '2001-01-01')");
+        jdbcTemplate.update("UPDATE customer SET address = 'Bandung', version = version + 1 WHERE id = 1");
+        jdbcTemplate.update("DELETE FROM customer WHERE id = 1");
+
+        List<CustomerChange> changes = customerChangeRepository.findAfter(start, 10);
+
+        assertEquals(List.of("created", "updated", "deleted"),
+                changes.stream().map(CustomerChange::getOperation).collect(Collectors.toList()));
+        assertEquals("Jakarta", changes.get(0).getCustomer().getAddress());
+        assertEquals("Bandung", changes.get(1).getCustomer().getAddress());
+        assertEquals(1L, changes.get(1).getVersion());
+        assertEquals(1L, changes.get(2).getCustomer().getId());
+        assertEquals("2001-01-01", changes.get(2).getCustomer().getBirthdate());
+        assertEquals(changes.get(2).getSeq(), customerChangeRepository.findLatestSeq());
+    }
+
+    @Test
+    public void findBetween_thenStopAtUpperBound() {
+        long start = customerChangeRepository.findLatestSeq();
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1, 'John', 'Jakarta', DATE '2001-01-01')");
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (2, 'Jane', 'Bandung', NULL)");
+        List<CustomerChange> all = customerChangeRepository.findAfter(start, 10);
+
+        List<CustomerChange> changes = customerChangeRepository.findBetween(start, all.get(0).getSeq(), 10);
+
+        assertEquals(1, changes.size());
+        assertEquals("John", changes.get(0).getCustomer().getName());
+        assertNull(all.get(1).getCustomer().getBirthdate());
+    }
+
+    @Test
+    public void findBySeqs_thenReturnOnlyRequestedChanges() {
+        long start = customerChangeRepository.findLatestSeq();
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1, 'John', 'Jakarta', DATE '2001-01-01')");
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (2, 'Jane', 'Bandung', DATE '2002-02-02')");
+        long janeSeq = customerChangeRepository.findAfter(start, 10).get(1).getSeq();
+
+        List<CustomerChange> changes = customerChangeRepository.findBySeqs(List.of(janeSeq, janeSeq + 100));
+
+        assertEquals(1, changes.size());
+        assertEquals("Jane", changes.get(0).getCustomer().getName());
+    }
+
+    @Test
+    public void deleteBefore_thenRemoveOlderChanges() {
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (1, 'John', 'Jakarta', DATE '2001-01-01')");
+
+        customerChangeRepository.deleteBefore(Instant.now().plusSeconds(60));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM customer_change", Integer.class));
+    }
+}
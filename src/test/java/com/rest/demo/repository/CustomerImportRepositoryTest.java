@@ -0,0 +1,70 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(CustomerImportRepository.class)
+public class CustomerImportRepositoryTest {
+    @Autowired
+    private CustomerImportRepository customerImportRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void insertNew_givenMoreCustomersThanOneIdBlock_thenInsertAllWithUniqueIds() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            customers.add(new Customer(null, "Import " + i, "Jl. \"Quoted\", " + i, LocalDate.of(2001, 1, 1).plusDays(i)));
+        }
+
+        int inserted = customerImportRepository.insertAll(customers);
+
+        assertEquals(120, inserted);
+        assertEquals(120, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT id) FROM customer WHERE name LIKE 'Import %'", Integer.class));
+        assertEquals("Jl. \"Quoted\", 7", jdbcTemplate.queryForObject(
+                "SELECT address FROM customer WHERE name = 'Import 7'", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer WHERE name LIKE 'Import %' AND version <> 0", Integer.class));
+    }
+
+    @Test
+    public void insertAll_givenCustomersSharingNameAddressAndBirthdate_thenInsertEach() {
+        Customer john = new Customer(null, "Import John", "Jakarta", LocalDate.of(2001, 1, 1));
+        customerImportRepository.insertAll(List.of(john));
+
+        int inserted = customerImportRepository.insertAll(List.of(john, john));
+
+        assertEquals(2, inserted);
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT id) FROM customer WHERE name = 'Import John'", Integer.class));
+    }
+
+    @Test
+    public void insertNew_givenRowsAlreadyLoadedOrRepeated_thenSkipDuplicates() {
+        Customer john = new Customer(null, "Import John", "Jakarta", LocalDate.of(2001, 1, 1));
+        Customer jane = new Customer(null, "Import Jane", "Bandung", LocalDate.of(2002, 2, 2));
+        customerImportRepository.insertNew(List.of(john));
+
+        int inserted = customerImportRepository.insertNew(List.of(john, jane, jane));
+
+        assertEquals(1, inserted);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer WHERE name LIKE 'Import %'", Integer.class));
+    }
+}
@@ -0,0 +1,73 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(CustomerIngestRepository.class)
+public class CustomerIngestRepositoryTest {
+    @Autowired
+    private CustomerIngestRepository customerIngestRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void insertAll_givenMoreCustomersThanOneIdBlock_thenAssignUniqueIdsAndInsertAll() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 75; i++) {
+            customers.add(new Customer(null, "Customer " + i, "Jakarta", LocalDate.of(2001, 1, 1).plusDays(i)));
+        }
+
+        customerIngestRepository.insertAll(customers);
+
+        Set<Long> ids = customers.stream().map(Customer::getId).collect(Collectors.toSet());
+        assertEquals(75, ids.size());
+        assertEquals(75, jdbcTemplate.queryForObject("SELECT count(*) FROM customer", Integer.class));
+        assertEquals("Customer 74", jdbcTemplate.queryForObject("SELECT name FROM customer WHERE id = ?", String.class,
+                customers.get(74).getId()));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT max(version) FROM customer", Long.class));
+    }
+
+    @Test
+    public void insertAll_givenIdsFromRolledBackAttempt_thenKeepThemAndReserveNoBlock() {
+        List<Customer> customers = List.of(new Customer(null, "John", "Jakarta", LocalDate.of(2001, 1, 1)),
+                new Customer(null, "Jane", "Bandung", LocalDate.of(2002, 2, 2)));
+        customerIngestRepository.insertAll(customers);
+        jdbcTemplate.update("DELETE FROM customer");
+        Long reserved = jdbcTemplate.queryForObject("SELECT last_value FROM customer_seq", Long.class);
+
+        customerIngestRepository.insertAll(List.of(customers.get(1)));
+
+        assertEquals(reserved, jdbcTemplate.queryForObject("SELECT last_value FROM customer_seq", Long.class));
+        assertEquals("Jane", jdbcTemplate.queryForObject("SELECT name FROM customer WHERE id = ?", String.class,
+                customers.get(1).getId()));
+    }
+
+    @Test
+    public void insertAll_thenLeaveIdsAfterTheBlocksItUsed() {
+        List<Customer> customers = List.of(new Customer(null, "John", "Jakarta", LocalDate.of(2001, 1, 1)));
+
+        customerIngestRepository.insertAll(customers);
+        Long defaultId = jdbcTemplate.queryForObject(
+                "INSERT INTO customer (name, address, birthdate) VALUES ('Jane', 'Bandung', DATE '2002-02-02') RETURNING id", Long.class);
+
+        assertTrue(defaultId > customers.get(0).getId());
+    }
+}
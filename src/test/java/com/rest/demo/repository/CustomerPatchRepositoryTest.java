@@ -0,0 +1,76 @@
+package com.rest.demo.repository;
+
+import com.rest.demo.entity.Customer;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(CustomerPatchRepository.class)
+public class CustomerPatchRepositoryTest {
+    @Autowired
+    private CustomerPatchRepository customerPatchRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private long id;
+
+    @BeforeEach
+    public void setUp() {
+        id = jdbcTemplate.queryForObject("INSERT INTO customer (id, name, address, birthdate, version) "
+                + "VALUES (nextval('customer_seq'), 'John', 'Jakarta', DATE '2001-01-01', 2) RETURNING id", Long.class);
+    }
+
+    @Test
+    public void updateChanged_givenChangedAddress_thenWriteOnlyAddressAndBumpVersion() {
+        Optional<Customer> result = customerPatchRepository.updateChanged(new Customer(id, null, "Bandung", null), null);
+
+        assertTrue(result.isPresent());
+        assertEquals("John", result.get().getName());
+        assertEquals("Bandung", result.get().getAddress());
+        assertEquals(LocalDate.of(2001, 1, 1), result.get().getBirthdate());
+        assertEquals(3L, result.get().getVersion());
+    }
+
+    @Test
+    public void updateChanged_givenUnchangedValues_thenLeaveRowUntouched() {
+        String xmin = jdbcTemplate.queryForObject("SELECT xmin::text FROM customer WHERE id = ?", String.class, id);
+        long changes = countChanges();
+
+        Optional<Customer> result = customerPatchRepository.updateChanged(
+                new Customer(id, "John", "Jakarta", LocalDate.of(2001, 1, 1)), 2L);
+
+        assertTrue(result.isEmpty());
+        assertEquals(xmin, jdbcTemplate.queryForObject("SELECT xmin::text FROM customer WHERE id = ?", String.class, id));
+        assertEquals(changes, countChanges());
+    }
+
+    @Test
+    public void updateChanged_givenStaleVersion_thenReturnEmpty() {
+        Optional<Customer> result = customerPatchRepository.updateChanged(new Customer(id, null, "Bandung", null), 1L);
+
+        assertTrue(result.isEmpty());
+        assertEquals("Jakarta", jdbcTemplate.queryForObject("SELECT address FROM customer WHERE id = ?", String.class, id));
+    }
+
+    @Test
+    public void updateChanged_givenNoFields_thenReturnEmpty() {
+        assertTrue(customerPatchRepository.updateChanged(new Customer(id, null, null, null), null).isEmpty());
+    }
+
+    private long countChanges() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM customer_change WHERE customer_id = ?", Long.class, id);
+    }
+}
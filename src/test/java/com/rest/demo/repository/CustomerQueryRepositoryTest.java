@@ -0,0 +1,176 @@
+package com.rest.demo.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.converter.CustomerExportWriter;
+import com.rest.demo.converter.CustomerJsonSerializer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchCursor;
+import com.rest.demo.model.CustomerSearchHit;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(CustomerQueryRepository.class)
+public class CustomerQueryRepositoryTest {
+    @Autowired
+    private CustomerQueryRepository customerQueryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        insert(1L, "Johnathan", "Jl. Sudirman No. 1, Jakarta", "1990-01-01");
+        insert(2L, "John", "Jl. Asia Afrika No. 2, Bandung", "1995-06-15");
+        insert(3L, "Jane", "Jl. Sudirman No. 3, Jakarta", "2001-12-31");
+        insert(4L, "Jon", "Jl. Malioboro No. 4, Yogyakarta", "1985-03-03");
+    }
+
+    @Test
+    public void findPage_givenOffsetAndLimit_thenReturnModelsOrderedById() {
+        List<CustomerModel> result = customerQueryRepository.findPage(1, 2);
+
+        assertEquals(List.of(2L, 3L), result.stream().map(CustomerModel::getId).collect(Collectors.toList()));
+        assertEquals("1995-06-15", result.get(0).getBirthdate());
+    }
+
+    @Test
+    public void findPage_givenFields_thenReadOnlySelectedColumns() {
+        List<CustomerModel> result = customerQueryRepository.findPage(1, 2, EnumSet.of(CustomerFieldEnum.NAME));
+
+        assertEquals(List.of("John", "Jane"), result.stream().map(CustomerModel::getName).collect(Collectors.toList()));
+        assertNull(result.get(0).getId());
+        assertNull(result.get(0).getAddress());
+        assertNull(result.get(0).getBirthdate());
+    }
+
+    @Test
+    public void findPage_givenCustomerWithoutBirthdate_thenMapNullBirthdate() {
+        jdbcTemplate.update("INSERT INTO customer (id, name, address) VALUES (5, 'Joan', 'Jl. Gajah Mada No. 5, Medan')");
+
+        assertNull(customerQueryRepository.findPage(4, 1).get(0).getBirthdate());
+        assertNull(customerQueryRepository.findPage(4, 1, EnumSet.of(CustomerFieldEnum.BIRTHDATE)).get(0).getBirthdate());
+    }
+
+    @Test
+    public void streamAll_givenCustomerWithoutBirthdate_thenExportEmptyCsvField() throws IOException {
+        jdbcTemplate.update("INSERT INTO customer (id, name, address) VALUES (5, 'Joan', 'Jl. Gajah Mada No. 5, Medan')");
+        CustomerExportWriter writer = new CustomerExportWriter(new ObjectMapper(), new CustomerJsonSerializer(),
+                new CustomerConverter());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.ID, CustomerFieldEnum.BIRTHDATE);
+
+        writer.writeModelsAsCsv(outputStream, fields, consumer -> customerQueryRepository.streamAll(fields, consumer));
+
+        assertTrue(outputStream.toString(StandardCharsets.UTF_8).endsWith("4,1985-03-03\n5,\n"));
+    }
+
+    @Test
+    public void findAfter_givenFieldsWithoutId_thenStillReadId() {
+        List<CustomerModel> result = customerQueryRepository.findAfter(2L, 3, EnumSet.of(CustomerFieldEnum.BIRTHDATE));
+
+        assertEquals(List.of(3L, 4L), result.stream().map(CustomerModel::getId).collect(Collectors.toList()));
+        assertEquals("2001-12-31", result.get(0).getBirthdate());
+        assertNull(result.get(0).getName());
+    }
+
+    @Test
+    public void streamAll_givenFields_thenStreamEveryRowInIdOrder() {
+        List<CustomerModel> result = new ArrayList<>();
+
+        customerQueryRepository.streamAll(EnumSet.of(CustomerFieldEnum.ID, CustomerFieldEnum.ADDRESS), result::add);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.stream().map(CustomerModel::getId).collect(Collectors.toList()));
+        assertEquals("Jl. Malioboro No. 4, Yogyakarta", result.get(3).getAddress());
+        assertNull(result.get(3).getName());
+    }
+
+    @Test
+    public void search_givenNamePrefix_thenMatchPrefixAndSimilarNames() {
+        List<CustomerSearchHit> result = customerQueryRepository.search(criteria("john", null, null, null, false), null, 10);
+
+        assertEquals(List.of(1L, 2L), ids(result));
+    }
+
+    @Test
+    public void search_givenMisspelledName_thenMatchBySimilarity() {
+        List<CustomerSearchHit> result = customerQueryRepository.search(criteria("Johnatan", null, null, null, false), null, 10);
+
+        assertTrue(ids(result).contains(1L));
+        assertFalse(ids(result).contains(3L));
+    }
+
+    @Test
+    public void search_givenAddressAndBirthdateRange_thenCombineFilters() {
+        List<CustomerSearchHit> result = customerQueryRepository.search(
+                criteria(null, "sudirman", LocalDate.of(2000, 1, 1), LocalDate.of(2010, 1, 1), false), null, 10);
+
+        assertEquals(List.of(3L), ids(result));
+    }
+
+    @Test
+    public void search_givenCursor_thenReturnRowsAfterCursor() {
+        CustomerSearchCriteria criteria = criteria(null, null, LocalDate.of(1980, 1, 1), null, false);
+
+        List<CustomerSearchHit> firstPage = customerQueryRepository.search(criteria, null, 2);
+        CustomerSearchHit last = firstPage.get(firstPage.size() - 1);
+        List<CustomerSearchHit> secondPage = customerQueryRepository.search(criteria,
+                new CustomerSearchCursor(last.getScore(), last.getCustomer().getId(), false), 2);
+
+        assertEquals(List.of(1L, 2L), ids(firstPage));
+        assertEquals(List.of(3L, 4L), ids(secondPage));
+    }
+
+    @Test
+    public void search_givenRelevanceSort_thenOrderByScore() {
+        List<CustomerSearchHit> result = customerQueryRepository.search(criteria("john", null, null, null, true), null, 10);
+
+        assertEquals(2L, result.get(0).getCustomer().getId());
+        assertTrue(result.get(0).getScore() > result.get(1).getScore());
+    }
+
+    @Test
+    public void search_givenLikeWildcards_thenMatchThemLiterally() {
+        List<CustomerSearchHit> result = customerQueryRepository.search(criteria("%%%", null, null, null, false), null, 10);
+
+        assertEquals(List.of(), ids(result));
+    }
+
+    private void insert(Long id, String name, String address, String birthdate) {
+        jdbcTemplate.update("INSERT INTO customer (id, name, address, birthdate) VALUES (?, ?, ?, ?)",
+                id, name, address, LocalDate.parse(birthdate));
+    }
+
+    private CustomerSearchCriteria criteria(String name, String address, LocalDate from, LocalDate to, boolean relevance) {
+        return new CustomerSearchCriteria(name, address, from, to, relevance);
+    }
+
+    private List<Long> ids(List<CustomerSearchHit> hits) {
+        return hits.stream().map(hit -> hit.getCustomer().getId()).collect(Collectors.toList());
+    }
+}
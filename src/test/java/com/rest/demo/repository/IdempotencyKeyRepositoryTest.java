@@ -0,0 +1,136 @@
+package com.rest.demo.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.idempotency.StoredResponse;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({IdempotencyKeyRepository.class, ObjectMapper.class})
+public class IdempotencyKeyRepositoryTest {
+    private static final String SCOPE_HASH = "a".repeat(64);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void find_givenInsertedResponse_thenReturnItWithHeadersAndBody() {
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("f".repeat(64), 201, "{\"id\":1}"));
+
+        Optional<StoredResponse> found = idempotencyKeyRepository.find(SCOPE_HASH, Instant.now().minus(1, ChronoUnit.HOURS));
+
+        assertTrue(found.isPresent());
+        assertEquals("f".repeat(64), found.get().getFingerprint());
+        assertEquals(201, found.get().getStatus());
+        assertEquals(List.of("application/json"), found.get().getHeaders().get("Content-Type"));
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), found.get().getBody());
+    }
+
+    @Test
+    public void insert_givenExistingKey_thenKeepFirstResponse() {
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("1".repeat(64), 201, "first"));
+
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("2".repeat(64), 400, "second"));
+
+        StoredResponse found = idempotencyKeyRepository.find(SCOPE_HASH, Instant.EPOCH).orElseThrow();
+        assertEquals("1".repeat(64), found.getFingerprint());
+        assertEquals(201, found.getStatus());
+    }
+
+    @Test
+    public void find_givenResponseOlderThanNotBefore_thenReturnEmpty() {
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("f".repeat(64), 201, "{}"));
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = now() - interval '2 days'");
+
+        assertTrue(idempotencyKeyRepository.find(SCOPE_HASH, Instant.now().minus(1, ChronoUnit.DAYS)).isEmpty());
+    }
+
+    @Test
+    public void deleteBefore_givenOldAndNewResponses_thenDeleteOnlyOld() {
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("f".repeat(64), 201, "{}"));
+        idempotencyKeyRepository.insert("b".repeat(64), response("f".repeat(64), 201, "{}"));
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = now() - interval '2 days' WHERE scope_hash = ?", SCOPE_HASH);
+
+        int deleted = idempotencyKeyRepository.deleteBefore(Instant.now().minus(1, ChronoUnit.DAYS));
+
+        assertEquals(1, deleted);
+        assertTrue(idempotencyKeyRepository.find("b".repeat(64), Instant.EPOCH).isPresent());
+    }
+
+    @Test
+    public void reserve_givenFreeKey_thenHoldItWithoutAResponseToReplay() {
+        assertTrue(idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1)));
+
+        assertFalse(idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1)));
+        assertTrue(idempotencyKeyRepository.find(SCOPE_HASH, Instant.EPOCH).isEmpty());
+    }
+
+    @Test
+    public void reserve_givenCompletedKey_thenRefuseUntilItExpires() {
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("f".repeat(64), 201, "{}"));
+
+        assertFalse(idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1)));
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = now() - interval '2 days'");
+        assertTrue(idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1)));
+    }
+
+    @Test
+    public void reserve_givenAbandonedReservation_thenTakeItOver() {
+        idempotencyKeyRepository.reserve(SCOPE_HASH, "1".repeat(64), hoursAgo(24), hoursAgo(1));
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = now() - interval '2 hours'");
+
+        assertTrue(idempotencyKeyRepository.reserve(SCOPE_HASH, "2".repeat(64), hoursAgo(24), hoursAgo(1)));
+        assertEquals("2".repeat(64), jdbcTemplate.queryForObject("SELECT fingerprint FROM idempotency_key", String.class));
+    }
+
+    @Test
+    public void insert_givenReservation_thenCompleteIt() {
+        idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1));
+
+        idempotencyKeyRepository.insert(SCOPE_HASH, response("f".repeat(64), 201, "{\"id\":1}"));
+
+        assertEquals(201, idempotencyKeyRepository.find(SCOPE_HASH, Instant.EPOCH).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void release_thenDropReservationButKeepCompletedResponses() {
+        idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1));
+        idempotencyKeyRepository.insert("b".repeat(64), response("f".repeat(64), 201, "{}"));
+
+        idempotencyKeyRepository.release(SCOPE_HASH);
+        idempotencyKeyRepository.release("b".repeat(64));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_key", Integer.class));
+        assertTrue(idempotencyKeyRepository.reserve(SCOPE_HASH, "f".repeat(64), hoursAgo(24), hoursAgo(1)));
+    }
+
+    private Instant hoursAgo(long hours) {
+        return Instant.now().minus(hours, ChronoUnit.HOURS);
+    }
+
+    private StoredResponse response(String fingerprint, int status, String body) {
+        return new StoredResponse(fingerprint, status, Map.of("Content-Type", List.of("application/json")),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
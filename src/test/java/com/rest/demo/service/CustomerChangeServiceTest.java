@@ -0,0 +1,110 @@
+package com.rest.demo.service;
+
+import com.rest.demo.model.CustomerChange;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.repository.CustomerChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class CustomerChangeServiceTest {
+    @Mock
+    private CustomerChangeRepository customerChangeRepository;
+    private CustomerChangeService customerChangeService;
+    private final BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        customerChangeService.stop();
+    }
+
+    @Test
+    public void subscribe_givenAfter_thenCatchUpFromOutboxThenStreamPublishedChanges() throws Exception {
+        when(customerChangeRepository.findLatestSeq()).thenReturn(2L);
+        when(customerChangeRepository.findBetween(1L, 2L, 500)).thenReturn(List.of(change(2)));
+        start(Duration.ofHours(1));
+
+        customerChangeService.subscribe(1L, this::record);
+        assertEquals(2L, received.poll(5, TimeUnit.SECONDS));
+        when(customerChangeRepository.findAfter(2L, 500)).thenReturn(List.of(change(3), change(4)));
+        assertEquals(2, customerChangeService.poll());
+
+        assertEquals(3L, received.poll(5, TimeUnit.SECONDS));
+        assertEquals(4L, received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void subscribe_givenNoAfter_thenOnlyStreamNewChanges() throws Exception {
+        when(customerChangeRepository.findLatestSeq()).thenReturn(5L);
+        start(Duration.ofHours(1));
+
+        customerChangeService.subscribe(null, this::record);
+        when(customerChangeRepository.findAfter(5L, 500)).thenReturn(List.of(change(6)));
+        customerChangeService.poll();
+
+        assertEquals(6L, received.poll(5, TimeUnit.SECONDS));
+        verify(customerChangeRepository, never()).findBetween(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void poll_givenGapWithinTimeout_thenHoldBackLaterChanges() {
+        when(customerChangeRepository.findLatestSeq()).thenReturn(0L);
+        start(Duration.ofHours(1));
+        when(customerChangeRepository.findAfter(0L, 500)).thenReturn(List.of(change(1), change(3)));
+
+        assertEquals(1, customerChangeService.poll());
+        when(customerChangeRepository.findAfter(1L, 500)).thenReturn(List.of(change(2), change(3)));
+        assertEquals(2, customerChangeService.poll());
+    }
+
+    @Test
+    public void poll_givenExpiredGap_thenSkipItAndPublishTheChangeWhenItCommitsLater() throws Exception {
+        when(customerChangeRepository.findLatestSeq()).thenReturn(0L);
+        start(Duration.ZERO);
+        customerChangeService.subscribe(null, this::record);
+        when(customerChangeRepository.findAfter(0L, 500)).thenReturn(List.of(change(1), change(3)));
+
+        assertEquals(2, customerChangeService.poll());
+        when(customerChangeRepository.findBySeqs(List.of(2L))).thenReturn(List.of(change(2)));
+        when(customerChangeRepository.findAfter(3L, 500)).thenReturn(List.of());
+        customerChangeService.poll();
+
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            seqs.add(received.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(1L, 3L, 2L), seqs);
+    }
+
+    private void start(Duration gapTimeout) {
+        customerChangeService = new CustomerChangeService(customerChangeRepository, Duration.ofHours(1), gapTimeout,
+                Duration.ofDays(7), 16);
+        customerChangeService.start();
+    }
+
+    private void record(List<CustomerChange> changes) {
+        received.addAll(changes.stream().map(CustomerChange::getSeq).collect(Collectors.toList()));
+    }
+
+    private CustomerChange change(long seq) {
+        return new CustomerChange(seq, "created", new CustomerModel(seq, "John", "Jakarta", "2001-01-01"), 0L);
+    }
+}
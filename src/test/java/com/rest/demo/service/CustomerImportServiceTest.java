@@ -0,0 +1,116 @@
+package com.rest.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.demo.converter.CustomerConverter;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.ImportFormatEnum;
+import com.rest.demo.model.CustomerImportReject;
+import com.rest.demo.model.CustomerImportReport;
+import com.rest.demo.repository.CustomerImportRepository;
+import com.rest.demo.validator.CustomerValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class CustomerImportServiceTest {
+    @Mock
+    private CustomerImportRepository customerImportRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    Path rejectDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<List<String>> chunks = new ArrayList<>();
+
+    @Test
+    public void importCustomers_givenValidAndInvalidRows_thenLoadValidInChunksAndRejectTheRest() throws Exception {
+        doAnswer(invocation -> {
+            List<Customer> chunk = invocation.getArgument(0);
+            chunks.add(chunk.stream().map(Customer::getName).collect(Collectors.toList()));
+            return chunk.size();
+        }).when(customerImportRepository).insertAll(anyList());
+        CustomerImportService service = service(2);
+        List<CustomerImportReport> progress = new ArrayList<>();
+
+        CustomerImportReport report = service.importCustomers(csv("name,address,birthdate\n"
+                + "John,Jakarta,2001-01-01\n"
+                + ",Bandung,2001-01-01\n"
+                + "Jane,Bandung,2002-02-30\n"
+                + "Jack,Surabaya,2003-03-03\n"
+                + "Jill,Medan,2004-04-04\n"), ImportFormatEnum.CSV, progress::add);
+
+        assertEquals(List.of(List.of("John", "Jack"), List.of("Jill")), chunks);
+        assertEquals("completed", report.getState());
+        assertEquals(5, report.getRead());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of("running", "running", "completed"),
+                progress.stream().map(CustomerImportReport::getState).collect(Collectors.toList()));
+
+        List<String> rejectLines = Files.readAllLines(service.findRejects(report.getImportId()).get());
+        CustomerImportReject reject = objectMapper.readValue(rejectLines.get(1), CustomerImportReject.class);
+        assertEquals(2, rejectLines.size());
+        assertEquals(4, reject.getLine());
+        assertEquals("birthdate must be a valid date in yyyy-MM-dd format", reject.getError());
+        assertEquals("Jane,Bandung,2002-02-30", reject.getRecord());
+    }
+
+    @Test
+    public void importCustomers_givenSkipExistingAndRowsAlreadyLoaded_thenCountDuplicates() throws Exception {
+        when(customerImportRepository.insertNew(anyList())).thenReturn(1);
+
+        CustomerImportReport report = service(10, true).importCustomers(csv("name,address,birthdate\n"
+                + "John,Jakarta,2001-01-01\nJane,Bandung,2002-02-02\n"), ImportFormatEnum.CSV, null);
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getDuplicates());
+    }
+
+    @Test
+    public void importCustomers_givenDatabaseFailure_thenReportFailedAndRethrow() {
+        when(customerImportRepository.insertAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        CustomerImportService service = service(10);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.importCustomers(
+                csv("name,address,birthdate\nJohn,Jakarta,2001-01-01\n"), ImportFormatEnum.CSV, null));
+
+        CustomerImportReport report = service.findReports().get(0);
+        assertEquals("failed", report.getState());
+        assertEquals("down", report.getMessage());
+        assertTrue(service.findReport(report.getImportId()).isPresent());
+    }
+
+    private CustomerImportService service(int chunkSize) {
+        return service(chunkSize, false);
+    }
+
+    private CustomerImportService service(int chunkSize, boolean skipExisting) {
+        return new CustomerImportService(customerImportRepository, new CustomerValidator(), new CustomerConverter(),
+                objectMapper, transactionManager, new SimpleMeterRegistry(), chunkSize, skipExisting, rejectDir.toString());
+    }
+
+    private ByteArrayInputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
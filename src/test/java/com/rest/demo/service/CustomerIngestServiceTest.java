@@ -0,0 +1,239 @@
+package com.rest.demo.service;
+
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerIngestStats;
+import com.rest.demo.model.CustomerIngestStatus;
+import com.rest.demo.repository.CustomerIngestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(SpringExtension.class)
+public class CustomerIngestServiceTest {
+    @Mock
+    private CustomerIngestRepository customerIngestRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private CustomerIngestService customerIngestService;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<String> insertedNames = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (customerIngestService != null) {
+            customerIngestService.stop();
+        }
+    }
+
+    @Test
+    public void enqueue_givenCustomer_thenWriteInBackgroundAndReportWritten() {
+        insertAssigningIds();
+        customerIngestService = start(10, "");
+
+        CustomerIngestStatus status = customerIngestService.enqueue(customer("John")).get();
+
+        assertEquals("queued", status.getState());
+        awaitTrue(() -> "written".equals(customerIngestService.findStatus(status.getTrackingId()).get().getState()));
+        assertEquals(1L, customerIngestService.findStatus(status.getTrackingId()).get().getCustomerId());
+        assertEquals(List.of("John"), insertedNames);
+    }
+
+    @Test
+    public void enqueue_givenFullQueue_thenReject() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(customerIngestRepository).insertAll(anyList());
+        customerIngestService = start(1, "");
+
+        assertTrue(customerIngestService.enqueue(customer("First")).isPresent());
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        assertTrue(customerIngestService.enqueue(customer("Second")).isPresent());
+        Optional<CustomerIngestStatus> rejected = customerIngestService.enqueue(customer("Third"));
+        release.countDown();
+
+        assertTrue(rejected.isEmpty());
+        CustomerIngestStats stats = customerIngestService.getStats();
+        assertEquals(2, stats.getAccepted());
+        assertEquals(1, stats.getRejected());
+    }
+
+    @Test
+    public void flush_givenRejectedRow_thenFailOnlyThatCustomer() {
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            if (customers.stream().anyMatch(customer -> customer.getName().equals("Bad"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            customers.forEach(customer -> customer.setId(nextId.getAndIncrement()));
+            return null;
+        }).when(customerIngestRepository).insertAll(anyList());
+        customerIngestService = start(10, "");
+
+        String good = customerIngestService.enqueue(customer("Good")).get().getTrackingId();
+        String bad = customerIngestService.enqueue(customer("Bad")).get().getTrackingId();
+
+        awaitTrue(() -> customerIngestService.getStats().getWritten() + customerIngestService.getStats().getFailed() == 2);
+        assertEquals("written", customerIngestService.findStatus(good).get().getState());
+        assertEquals("failed", customerIngestService.findStatus(bad).get().getState());
+        assertEquals("value too long", customerIngestService.findStatus(bad).get().getMessage());
+    }
+
+    @Test
+    public void flush_givenRejectedRow_thenRetryRowsWithTheIdsOfTheBatch() {
+        List<Long> rowIds = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.stream().filter(customer -> customer.getId() == null)
+                    .forEach(customer -> customer.setId(nextId.getAndIncrement()));
+            if (customers.size() > 1) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            rowIds.add(customers.get(0).getId());
+            return null;
+        }).when(customerIngestRepository).insertAll(anyList());
+        customerIngestService = start(10, "");
+
+        customerIngestService.enqueue(customer("First"));
+        customerIngestService.enqueue(customer("Second"));
+
+        awaitTrue(() -> customerIngestService.getStats().getWritten() == 2);
+        assertEquals(List.of(1L, 2L), rowIds);
+    }
+
+    @Test
+    public void flush_givenDatabaseUnavailablePastMaxRetries_thenFailTheBatch() {
+        doAnswer(invocation -> {
+            throw new QueryTimeoutException("canceling statement due to statement timeout");
+        }).when(customerIngestRepository).insertAll(anyList());
+        customerIngestService = start(10, "", 1);
+
+        String trackingId = customerIngestService.enqueue(customer("John")).get().getTrackingId();
+
+        awaitTrue(() -> customerIngestService.getStats().getFailed() == 1);
+        assertEquals("failed", customerIngestService.findStatus(trackingId).get().getState());
+        assertEquals("canceling statement due to statement timeout", customerIngestService.findStatus(trackingId).get().getMessage());
+        verify(customerIngestRepository, times(2)).insertAll(anyList());
+    }
+
+    @Test
+    public void start_givenLogWithUnwrittenCustomers_thenReplayThem(@TempDir Path directory) throws Exception {
+        Path logPath = directory.resolve("ingest.log");
+        CustomerIngestLog log = new CustomerIngestLog(logPath);
+        log.recover();
+        CustomerIngestService.PendingCustomer written = new CustomerIngestService.PendingCustomer("a", customer("Written"));
+        CustomerIngestService.PendingCustomer pending = new CustomerIngestService.PendingCustomer("b", customer("Pending"));
+        log.appendAccepted(written);
+        log.appendAccepted(pending);
+        log.appendCompleted(List.of(written));
+        log.close();
+        insertAssigningIds();
+
+        customerIngestService = start(10, logPath.toString());
+
+        awaitTrue(() -> customerIngestService.findStatus("b").map(status -> status.getState().equals("written")).orElse(false));
+        assertEquals(List.of("Pending"), insertedNames);
+        assertTrue(customerIngestService.findStatus("a").isEmpty());
+    }
+
+    @Test
+    public void start_givenReplayCutShort_thenKeepUnqueuedCustomersInTheLog(@TempDir Path directory) throws Exception {
+        Path logPath = directory.resolve("ingest.log");
+        CustomerIngestLog log = new CustomerIngestLog(logPath);
+        log.recover();
+        for (String trackingId : List.of("a", "b", "c")) {
+            log.appendAccepted(new CustomerIngestService.PendingCustomer(trackingId, customer(trackingId)));
+        }
+        log.close();
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            if (customers.get(0).getName().equals("a")) {
+                flushing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            customers.forEach(customer -> customer.setId(nextId.getAndIncrement()));
+            return null;
+        }).when(customerIngestRepository).insertAll(anyList());
+        customerIngestService = new CustomerIngestService(customerIngestRepository, transactionManager,
+                new SimpleMeterRegistry(), 1, 100, 60, logPath.toString());
+
+        // With a queue of one, the replay fills it with "b" while "a" is being written and then waits to queue "c"
+        Thread replay = new Thread(customerIngestService::start);
+        replay.start();
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        awaitTrue(() -> customerIngestService.getStats().getQueued() == 1 && replay.getState() == Thread.State.WAITING);
+        replay.interrupt();
+        replay.join(TimeUnit.SECONDS.toMillis(5));
+        release.countDown();
+        awaitTrue(() -> customerIngestService.getStats().getWritten() == 2);
+        customerIngestService.stop();
+        customerIngestService = null;
+
+        try (CustomerIngestLog recovered = new CustomerIngestLog(logPath)) {
+            assertEquals(List.of("c"), recovered.recover().stream()
+                    .map(CustomerIngestService.PendingCustomer::getTrackingId).collect(Collectors.toList()));
+        }
+    }
+
+    private CustomerIngestService start(int capacity, String logPath) {
+        return start(capacity, logPath, 60);
+    }
+
+    private CustomerIngestService start(int capacity, String logPath, int maxRetries) {
+        CustomerIngestService service = new CustomerIngestService(customerIngestRepository, transactionManager,
+                new SimpleMeterRegistry(), capacity, 100, maxRetries, logPath);
+        service.start();
+        return service;
+    }
+
+    private void insertAssigningIds() {
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> customer.setId(nextId.getAndIncrement()));
+            insertedNames.addAll(customers.stream().map(Customer::getName).collect(Collectors.toList()));
+            return null;
+        }).when(customerIngestRepository).insertAll(anyList());
+    }
+
+    private Customer customer(String name) {
+        return new Customer(null, name, "Jakarta", LocalDate.of(2001, 1, 1));
+    }
+
+    private void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.rest.demo.service;
+
+import com.rest.demo.config.CacheConfig;
+import com.rest.demo.entity.Customer;
+import com.rest.demo.repository.CustomerPatchRepository;
+import com.rest.demo.repository.CustomerQueryRepository;
+import com.rest.demo.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+public class CustomerServiceCacheTest {
+    @Configuration
+    @Import({CacheConfig.class, CustomerService.class})
+    static class TestConfig {
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.CUSTOMER_CACHE);
+        }
+    }
+
+    @MockBean
+    private CustomerRepository customerRepository;
+    @MockBean
+    private CustomerQueryRepository customerQueryRepository;
+    @MockBean
+    private CustomerPatchRepository customerPatchRepository;
+    @MockBean
+    private EntityManager entityManager;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CacheManager cacheManager;
+    Customer customer;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache(CacheConfig.CUSTOMER_CACHE).clear();
+        customer = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+    }
+
+    @Test
+    public void findCustomerById_givenRepeatedLookups_thenHitRepositoryOnce() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+
+        customerService.findCustomerById(1L);
+        Optional<Customer> result = customerService.findCustomerById(1L);
+
+        assertEquals(Optional.of(customer), result);
+        verify(customerRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void findCustomerById_afterDelete_thenReloadFromRepository() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.deleteReturning(1L)).thenReturn(Optional.of(customer));
+
+        customerService.findCustomerById(1L);
+        customerService.deleteCustomer(1L);
+        customerService.findCustomerById(1L);
+
+        verify(customerRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void findCustomerById_afterUpdate_thenReturnUpdatedCustomerFromCache() {
+        Customer updated = new Customer(1L, "John", "Bandung", LocalDate.of(2001, 1, 1));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.updateReturning(1L, "John", "Bandung", updated.getBirthdate())).thenReturn(Optional.of(updated));
+
+        customerService.findCustomerById(1L);
+        customerService.updateCustomer(updated, null);
+        Optional<Customer> result = customerService.findCustomerById(1L);
+
+        assertEquals(Optional.of(updated), result);
+        verify(customerRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void findCustomerById_givenMissingCustomer_thenDoNotCacheAbsence() {
+        when(customerRepository.findById(2L)).thenReturn(Optional.empty());
+
+        customerService.findCustomerById(2L);
+        customerService.findCustomerById(2L);
+
+        verify(customerRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    public void findCustomersByIds_givenCachedCustomer_thenOnlyLoadMisses() {
+        Customer customer2 = new Customer(2L, "Jane", "Bandung", LocalDate.of(2002, 2, 2));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.findAllById(List.of(2L))).thenReturn(List.of(customer2));
+
+        customerService.findCustomerById(1L);
+        Map<Long, Customer> result = customerService.findCustomersByIds(List.of(2L, 1L));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(result.keySet()));
+        assertEquals(customer, result.get(1L));
+        verify(customerRepository, times(1)).findAllById(List.of(2L));
+        assertEquals(Optional.of(customer2), customerService.findCustomerById(2L));
+        verify(customerRepository, never()).findById(2L);
+    }
+}
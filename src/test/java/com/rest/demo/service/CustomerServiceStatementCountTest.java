@@ -0,0 +1,122 @@
+package com.rest.demo.service;
+
+import com.rest.demo.entity.Customer;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.repository.CustomerPatchRepository;
+import com.rest.demo.repository.CustomerQueryRepository;
+import com.rest.demo.repository.CustomerRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({CustomerService.class, CustomerQueryRepository.class, CustomerPatchRepository.class, NoOpCacheManager.class})
+public class CustomerServiceStatementCountTest {
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Customer customer;
+
+    @BeforeEach
+    public void setUp() {
+        customer = customerRepository.saveAndFlush(new Customer(null, "John", "Jakarta", LocalDate.of(2001, 1, 1)));
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void updateCustomer_thenIssueSingleStatement() {
+        Customer result = customerService.updateCustomer(
+                new Customer(customer.getId(), "John", "Bandung", LocalDate.of(2001, 1, 1)), null).orElseThrow();
+        entityManager.flush();
+
+        assertEquals("Bandung", result.getAddress());
+        assertEquals(customer.getVersion() + 1, result.getVersion());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void updateCustomer_givenNonExistingId_thenIssueSingleStatementAndReturnEmpty() {
+        Customer missing = new Customer(customer.getId() + 1000, "John", "Bandung", LocalDate.of(2001, 1, 1));
+
+        assertTrue(customerService.updateCustomer(missing, null).isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void updateCustomer_givenStaleVersion_thenIssueSingleStatementAndReturnEmpty() {
+        Customer stale = new Customer(customer.getId(), "John", "Bandung", LocalDate.of(2001, 1, 1));
+
+        assertTrue(customerService.updateCustomer(stale, customer.getVersion() + 1).isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void deleteCustomer_thenIssueSingleStatement() {
+        Customer result = customerService.deleteCustomer(customer.getId()).orElseThrow();
+        entityManager.flush();
+
+        assertEquals(customer.getId(), result.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        assertFalse(customerRepository.existsById(customer.getId()));
+    }
+
+    @Test
+    public void findCustomersByIds_givenSingleChunk_thenIssueSingleStatement() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = customer.getId() + 1; id < customer.getId() + 500; id++) {
+            ids.add(id);
+        }
+        ids.add(customer.getId());
+
+        Map<Long, Customer> result = customerService.findCustomersByIds(ids);
+
+        assertEquals(1, result.size());
+        assertEquals("John", result.get(customer.getId()).getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void findAllCustomerModels_thenMapRowsWithoutLoadingEntities() {
+        customerRepository.saveAndFlush(new Customer(null, "Jane", "Bandung", LocalDate.of(2002, 2, 2)));
+        entityManager.clear();
+        statistics.clear();
+
+        List<CustomerModel> result = customerService.findAllCustomerModels(PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id")));
+
+        assertEquals(1, result.size());
+        assertEquals(customer.getId(), result.get(0).getId());
+        assertEquals("2001-01-01", result.get(0).getBirthdate());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
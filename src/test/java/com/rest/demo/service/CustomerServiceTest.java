@@ -2,6 +2,12 @@ package com.rest.demo.service;
 
 import com.rest.demo.converter.CustomerConverter;
 import com.rest.demo.entity.Customer;
+import com.rest.demo.enums.CustomerFieldEnum;
+import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerSearchCriteria;
+import com.rest.demo.model.CustomerSearchHit;
+import com.rest.demo.repository.CustomerPatchRepository;
+import com.rest.demo.repository.CustomerQueryRepository;
 import com.rest.demo.repository.CustomerRepository;
 import com.rest.demo.service.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,18 +15,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import javax.persistence.EntityNotFoundException;
+import javax.persistence.EntityManager;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -30,6 +44,14 @@ import static org.mockito.Mockito.*;
 public class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
+    @Mock
+    private CustomerQueryRepository customerQueryRepository;
+    @Mock
+    private CustomerPatchRepository customerPatchRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private CacheManager cacheManager;
     @InjectMocks
     CustomerService customerService;
     Customer customer;
@@ -58,44 +80,43 @@ public class CustomerServiceTest {
         customer.setId(1L);
         Customer updatedCustomer = customer;
         updatedCustomer.setAddress("Bandung");
-        when(customerRepository.findById(updatedCustomer.getId())).thenReturn(Optional.ofNullable(customer));
-        when(customerRepository.save(updatedCustomer)).thenReturn(updatedCustomer);
-        Customer result = customerService.updateCustomer(updatedCustomer);
+        when(customerRepository.updateReturning(1L, "John", "Bandung", updatedCustomer.getBirthdate()))
+                .thenReturn(Optional.of(updatedCustomer));
+        Optional<Customer> result = customerService.updateCustomer(updatedCustomer, null);
 
-        assertNotNull(result);
-        assertEquals(customer, result);
-        verify(customerRepository, times(1)).findById(updatedCustomer.getId());
-        verify(customerRepository, times(1)).save(customer);
+        assertEquals(Optional.of(customer), result);
+        verify(customerRepository, times(1)).updateReturning(1L, "John", "Bandung", updatedCustomer.getBirthdate());
+        verify(customerRepository, never()).findById(any());
+        verify(customerRepository, never()).save(any());
     }
 
     @Test
-    public void updateCustomer_givenNonExistingCustomer_thenThrowEntityNotFoundException() {
+    public void updateCustomer_givenNonExistingCustomer_thenReturnEmpty() {
         Customer nonExistingCustomer = customer;
         nonExistingCustomer.setId(2L);
         nonExistingCustomer.setAddress("Bandung");
-        when(customerRepository.findById(nonExistingCustomer.getId())).thenReturn(Optional.empty());
+        when(customerRepository.updateReturning(2L, "John", "Bandung", nonExistingCustomer.getBirthdate()))
+                .thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> customerService.updateCustomer(nonExistingCustomer));
-        verify(customerRepository, times(1)).findById(nonExistingCustomer.getId());
-        verify(customerRepository, never()).save(any());
+        assertTrue(customerService.updateCustomer(nonExistingCustomer, null).isEmpty());
+        verify(customerRepository, times(1)).updateReturning(2L, "John", "Bandung", nonExistingCustomer.getBirthdate());
     }
 
     @Test
     public void getCustomerById_givenValidId_thenReturnCustomer() {
         customer.setId(1L);
         when(customerRepository.findById(customer.getId())).thenReturn(Optional.ofNullable(customer));
-        Customer result = customerService.findCustomerById(customer.getId());
+        Optional<Customer> result = customerService.findCustomerById(customer.getId());
 
-        assertNotNull(result);
-        assertEquals(customer, result);
+        assertEquals(Optional.of(customer), result);
         verify(customerRepository, times(1)).findById(customer.getId());
     }
 
     @Test
-    public void getCustomerById_givenInvalidId_thenThrowEntityNotFoundException() {
+    public void getCustomerById_givenInvalidId_thenReturnEmpty() {
         when(customerRepository.findById(10L)).thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> customerService.findCustomerById(10L));
+        assertTrue(customerService.findCustomerById(10L).isEmpty());
         verify(customerRepository, times(1)).findById(10L);
     }
 
@@ -131,22 +152,199 @@ public class CustomerServiceTest {
     @Test
     void deleteCustomer_givenValidId_thenDeleteCustomerAndReturnCustomer() {
         customer.setId(1L);
-        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(customerRepository.deleteReturning(customer.getId())).thenReturn(Optional.of(customer));
 
-        Customer result = customerService.deleteCustomer(customer.getId());
+        Optional<Customer> result = customerService.deleteCustomer(customer.getId());
 
-        assertNotNull(result);
-        assertEquals(customer, result);
-        verify(customerRepository, times(1)).findById(customer.getId());
-        verify(customerRepository, times(1)).deleteById(customer.getId());
+        assertEquals(Optional.of(customer), result);
+        verify(customerRepository, times(1)).deleteReturning(customer.getId());
+        verify(customerRepository, never()).findById(any());
+        verify(customerRepository, never()).deleteById(any());
     }
 
     @Test
-    void deleteCustomer_givenInvalidId_thenThrowEntityNotFoundException() {
-        when(customerRepository.findById(10L)).thenReturn(Optional.empty());
+    void deleteCustomer_givenInvalidId_thenReturnEmpty() {
+        when(customerRepository.deleteReturning(10L)).thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> customerService.deleteCustomer(10L));
-        verify(customerRepository, times(1)).findById(10L);
-        verify(customerRepository, never()).deleteById(10L);
+        assertTrue(customerService.deleteCustomer(10L).isEmpty());
+        verify(customerRepository, times(1)).deleteReturning(10L);
+    }
+
+    @Test
+    public void findCustomersAfter_givenAfterId_thenQueryByIdGreaterThan() {
+        customer.setId(6L);
+        Pageable page = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<Customer> customerSlice = new SliceImpl<>(List.of(customer), page, false);
+
+        when(customerRepository.findByIdGreaterThan(5L, page)).thenReturn(customerSlice);
+        Slice<Customer> result = customerService.findCustomersAfter(5L, 2);
+
+        assertEquals(customerSlice, result);
+        verify(customerRepository, times(1)).findByIdGreaterThan(5L, page);
+        verify(customerRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    public void findCustomersAfter_givenNoAfterId_thenStartFromBeginning() {
+        Pageable page = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+
+        customerService.findCustomersAfter(null, 2);
+
+        verify(customerRepository, times(1)).findByIdGreaterThan(0L, page);
+    }
+
+    @Test
+    public void addCustomers_givenValidCustomers_thenSaveAll() {
+        List<Customer> customers = List.of(customer, new Customer(null, "Jane", "Bandung", LocalDate.now()));
+        when(customerRepository.saveAll(customers)).thenReturn(customers);
+
+        List<Customer> result = customerService.addCustomers(customers);
+
+        assertEquals(customers, result);
+        verify(customerRepository, times(1)).saveAll(customers);
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    public void exportCustomers_givenStream_thenPassEveryCustomerToConsumer() {
+        Customer customer2 = new Customer(2L, "Jane", "Bandung", LocalDate.now());
+        when(customerRepository.streamAll()).thenReturn(Stream.of(customer, customer2));
+
+        List<Customer> exported = new ArrayList<>();
+        customerService.exportCustomers(exported::add);
+
+        assertEquals(List.of(customer, customer2), exported);
+        verify(customerRepository, times(1)).streamAll();
+    }
+
+    @Test
+    public void findAllCustomerModels_givenPage_thenQueryProjectionWithOffsetAndLimit() {
+        List<CustomerModel> customerModels = List.of(new CustomerModel(3L, "John", "Jakarta", "2001-01-01"));
+        Pageable page = PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "id"));
+        when(customerQueryRepository.findPage(2L, 2)).thenReturn(customerModels);
+
+        List<CustomerModel> result = customerService.findAllCustomerModels(page);
+
+        assertEquals(customerModels, result);
+        verify(customerRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    public void findAllCustomerModels_givenFields_thenQuerySelectedColumns() {
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.NAME);
+        List<CustomerModel> customerModels = List.of(new CustomerModel(null, "John", null, null));
+        Pageable page = PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "id"));
+        when(customerQueryRepository.findPage(2L, 2, fields)).thenReturn(customerModels);
+
+        List<CustomerModel> result = customerService.findAllCustomerModels(page, fields);
+
+        assertEquals(customerModels, result);
+        verify(customerQueryRepository, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    public void findCustomerModelsAfter_givenNoAfterId_thenFetchOnePastLimitFromBeginning() {
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.ADDRESS);
+
+        customerService.findCustomerModelsAfter(null, 10, fields);
+
+        verify(customerQueryRepository, times(1)).findAfter(0L, 11, fields);
+    }
+
+    @Test
+    public void exportCustomerModels_givenFields_thenStreamFromQueryRepository() {
+        Set<CustomerFieldEnum> fields = EnumSet.of(CustomerFieldEnum.ID);
+        List<CustomerModel> exported = new ArrayList<>();
+
+        customerService.exportCustomerModels(fields, exported::add);
+
+        verify(customerQueryRepository, times(1)).streamAll(eq(fields), any());
+        verify(customerRepository, never()).streamAll();
+    }
+
+    @Test
+    public void findCustomersByIds_givenIds_thenReturnFoundCustomersInRequestOrder() {
+        Customer customer1 = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        Customer customer3 = new Customer(3L, "Jane", "Bandung", LocalDate.of(2002, 2, 2));
+        when(customerRepository.findAllById(List.of(3L, 2L, 1L))).thenReturn(List.of(customer1, customer3));
+
+        Map<Long, Customer> result = customerService.findCustomersByIds(List.of(3L, 2L, 1L, 3L));
+
+        assertEquals(List.of(3L, 1L), new ArrayList<>(result.keySet()));
+        assertEquals(customer3, result.get(3L));
+        verify(customerRepository, times(1)).findAllById(List.of(3L, 2L, 1L));
+    }
+
+    @Test
+    public void findCustomersByIds_givenMoreIdsThanChunkSize_thenQueryPerChunk() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            ids.add(id);
+        }
+        when(customerRepository.findAllById(any())).thenReturn(new ArrayList<>());
+
+        Map<Long, Customer> result = customerService.findCustomersByIds(ids);
+
+        assertTrue(result.isEmpty());
+        verify(customerRepository, times(1)).findAllById(ids.subList(0, 500));
+        verify(customerRepository, times(1)).findAllById(ids.subList(500, 1000));
+    }
+
+    @Test
+    public void searchCustomers_givenLimit_thenFetchOneExtraRow() {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("John", null, null, null, false);
+        List<CustomerSearchHit> hits = new ArrayList<>();
+        when(customerQueryRepository.search(criteria, null, 21)).thenReturn(hits);
+
+        List<CustomerSearchHit> result = customerService.searchCustomers(criteria, null, 20);
+
+        assertEquals(hits, result);
+        verify(customerQueryRepository, times(1)).search(criteria, null, 21);
+    }
+
+    @Test
+    public void updateCustomer_givenExpectedVersion_thenUpdateOnlyThatVersion() {
+        Customer updatedCustomer = new Customer(1L, "John", "Bandung", LocalDate.of(2001, 1, 1));
+        when(customerRepository.updateReturningIfVersion(1L, "John", "Bandung", LocalDate.of(2001, 1, 1), 3L))
+                .thenReturn(Optional.of(updatedCustomer));
+
+        Optional<Customer> result = customerService.updateCustomer(updatedCustomer, 3L);
+
+        assertEquals(Optional.of(updatedCustomer), result);
+        verify(customerRepository, never()).updateReturning(any(), any(), any(), any());
+    }
+
+    @Test
+    public void patchCustomer_givenChangedField_thenReturnUpdatedCustomerWithoutLookup() {
+        Customer changes = new Customer(1L, null, "Bandung", null);
+        Customer patched = new Customer(1L, "John", "Bandung", LocalDate.of(2001, 1, 1));
+        when(customerPatchRepository.updateChanged(changes, null)).thenReturn(Optional.of(patched));
+
+        Optional<Customer> result = customerService.patchCustomer(changes, null);
+
+        assertEquals(Optional.of(patched), result);
+        verify(customerRepository, never()).findById(any());
+    }
+
+    @Test
+    public void patchCustomer_givenNothingChanged_thenReturnCurrentCustomer() {
+        Customer changes = new Customer(1L, null, "Jakarta", null);
+        Customer current = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        current.setVersion(3L);
+        when(customerPatchRepository.updateChanged(changes, 3L)).thenReturn(Optional.empty());
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertEquals(Optional.of(current), customerService.patchCustomer(changes, 3L));
+    }
+
+    @Test
+    public void patchCustomer_givenStaleVersion_thenReturnEmpty() {
+        Customer changes = new Customer(1L, null, "Bandung", null);
+        Customer current = new Customer(1L, "John", "Jakarta", LocalDate.of(2001, 1, 1));
+        current.setVersion(4L);
+        when(customerPatchRepository.updateChanged(changes, 3L)).thenReturn(Optional.empty());
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertTrue(customerService.patchCustomer(changes, 3L).isEmpty());
     }
 }
@@ -0,0 +1,137 @@
+package com.rest.demo.service;
+
+import com.rest.demo.entity.ReactiveCustomer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Embedded Postgres rather than H2, as the repository's queries use Postgres SQL such as DELETE ... RETURNING
+@DataR2dbcTest
+@Import(ReactiveCustomerService.class)
+public class ReactiveCustomerServiceTest {
+    private static final EmbeddedPostgres postgres;
+
+    static {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+    }
+
+    @DynamicPropertySource
+    static void r2dbc(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+        registry.add("spring.r2dbc.username", () -> "postgres");
+        registry.add("spring.r2dbc.password", () -> "postgres");
+    }
+
+    @AfterAll
+    public static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Autowired
+    private ReactiveCustomerService customerService;
+    @Autowired
+    private DatabaseClient databaseClient;
+    ReactiveCustomer customer;
+
+    @BeforeEach
+    public void setUp() {
+        databaseClient.sql("DELETE FROM customer").then().block();
+        customer = customerService.addCustomer(new ReactiveCustomer(null, "John", "Jakarta", LocalDate.of(2001, 1, 1))).block();
+    }
+
+    @Test
+    public void addCustomer_givenNewCustomer_thenAssignId() {
+        assertNotNull(customer.getId());
+        StepVerifier.create(customerService.findCustomerById(customer.getId()))
+                .assertNext(found -> assertEquals("John", found.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void addCustomer_givenClientId_thenInsertWithGeneratedId() {
+        ReactiveCustomer created = customerService.addCustomer(
+                new ReactiveCustomer(customer.getId(), "Jane", "Surabaya", LocalDate.of(1999, 9, 9))).block();
+
+        assertNotNull(created);
+        assertNotEquals(customer.getId(), created.getId());
+        StepVerifier.create(customerService.findCustomerById(customer.getId()))
+                .assertNext(found -> assertEquals("John", found.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void updateCustomer_givenExistingCustomer_thenReturnUpdatedCustomer() {
+        ReactiveCustomer updated = new ReactiveCustomer(customer.getId(), "John", "Bandung", LocalDate.of(2001, 1, 1));
+
+        StepVerifier.create(customerService.updateCustomer(updated).then(customerService.findCustomerById(customer.getId())))
+                .assertNext(found -> assertEquals("Bandung", found.getAddress()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void updateCustomer_givenNonExistingCustomer_thenCompleteEmpty() {
+        ReactiveCustomer missing = new ReactiveCustomer(customer.getId() + 100, "John", "Bandung", LocalDate.of(2001, 1, 1));
+
+        StepVerifier.create(customerService.updateCustomer(missing))
+                .verifyComplete();
+    }
+
+    @Test
+    public void streamAllCustomers_givenSmallDemand_thenEmitOnlyRequestedRows() {
+        customerService.addCustomer(new ReactiveCustomer(null, "Jane", "Bandung", LocalDate.of(2002, 2, 2))).block();
+
+        StepVerifier.create(customerService.streamAllCustomers(), 1)
+                .assertNext(found -> assertEquals("John", found.getName()))
+                .thenRequest(1)
+                .assertNext(found -> assertEquals("Jane", found.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void findAllCustomers_givenPage_thenReturnPageContent() {
+        customerService.addCustomer(new ReactiveCustomer(null, "Jane", "Bandung", LocalDate.of(2002, 2, 2))).block();
+
+        StepVerifier.create(customerService.findAllCustomers(PageRequest.of(1, 1, Sort.by(Sort.Direction.ASC, "id"))))
+                .assertNext(found -> assertEquals("Jane", found.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void deleteCustomer_givenExistingCustomer_thenReturnDeletedAndRemove() {
+        StepVerifier.create(customerService.deleteCustomer(customer.getId()))
+                .assertNext(deleted -> assertEquals(customer.getId(), deleted.getId()))
+                .verifyComplete();
+        StepVerifier.create(customerService.findCustomerById(customer.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void deleteCustomer_givenMissingCustomer_thenCompleteEmpty() {
+        StepVerifier.create(customerService.deleteCustomer(customer.getId() + 100))
+                .verifyComplete();
+    }
+}
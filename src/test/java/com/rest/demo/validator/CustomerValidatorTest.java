@@ -1,16 +1,19 @@
 package com.rest.demo.validator;
 
 import com.rest.demo.model.CustomerModel;
+import com.rest.demo.model.CustomerPatch;
 import com.rest.demo.validator.CustomerValidator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mockito;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import javax.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.verifyNoInteractions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(SpringExtension.class)
 public class CustomerValidatorTest {
@@ -18,72 +21,221 @@ public class CustomerValidatorTest {
     private final CustomerValidator customerValidator = new CustomerValidator();
 
     @Test
-    public void validateRequest_givenCompleteRequest_thenDoNothing() {
+    public void validateRequest_givenCompleteRequest_thenReturnValid() {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setName("John");
         customerModel.setAddress("Jakarta");
         customerModel.setBirthdate("2002-01-01");
 
-        ValidationException validationException = Mockito.mock(ValidationException.class);
-        verifyNoInteractions(validationException);
-        customerValidator.validateRequest(customerModel);
-        verifyNoInteractions(validationException);
+        ValidationResult result = customerValidator.validateRequest(customerModel);
+
+        assertTrue(result.isValid());
+        assertTrue(result.getErrors().isEmpty());
     }
 
     @Test
-    public void validateRequest_givenEmptyName_thenThrowValidationException() {
+    public void validateRequest_givenEmptyName_thenReturnNameError() {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setName("");
         customerModel.setAddress("Jakarta");
         customerModel.setBirthdate("2002-01-01");
 
-        assertThrows(ValidationException.class, () -> {
-            customerValidator.validateRequest(customerModel);
-        });
+        ValidationResult result = customerValidator.validateRequest(customerModel);
+
+        assertFalse(result.isValid());
+        assertEquals("name must not be empty", result.getMessage());
     }
 
     @Test
-    public void validateRequest_givenEmptyAddress_thenThrowValidationException() {
+    public void validateRequest_givenEmptyAddress_thenReturnAddressError() {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setName("John");
         customerModel.setAddress("");
         customerModel.setBirthdate("2002-01-01");
 
-        assertThrows(ValidationException.class, () -> {
-            customerValidator.validateRequest(customerModel);
-        });
+        ValidationResult result = customerValidator.validateRequest(customerModel);
+
+        assertFalse(result.isValid());
+        assertEquals("address must not be empty", result.getMessage());
     }
 
     @Test
-    public void validateRequest_givenEmptyBirthdate_thenThrowValidationException() {
+    public void validateRequest_givenEmptyBirthdate_thenReturnBirthdateError() {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setName("John");
         customerModel.setAddress("Jakarta");
         customerModel.setBirthdate("");
 
-        assertThrows(ValidationException.class, () -> {
-            customerValidator.validateRequest(customerModel);
-        });
+        ValidationResult result = customerValidator.validateRequest(customerModel);
+
+        assertFalse(result.isValid());
+        assertEquals("birthdate must not be empty", result.getMessage());
     }
 
     @Test
-    public void testValidateId_WithNonNullId_NoExceptionThrown() {
+    public void validateRequest_givenSeveralInvalidFields_thenCollectAllErrors() {
+        CustomerModel customerModel = new CustomerModel();
+        customerModel.setAddress("");
+        customerModel.setBirthdate("2002-02-30");
+
+        ValidationResult result = customerValidator.validateRequest(customerModel);
+
+        assertEquals(List.of("name must not be empty", "address must not be empty",
+                "birthdate must be a valid date in yyyy-MM-dd format"), result.getErrors());
+        assertEquals("name must not be empty, address must not be empty, "
+                + "birthdate must be a valid date in yyyy-MM-dd format", result.getMessage());
+    }
+
+    @Test
+    public void validateRequest_givenMalformedBirthdate_thenReturnBirthdateError() {
+        for (String birthdate : List.of("2002-1-01", "2002/01/01", "02-01-2002", "2002-13-01", "0000-01-01", "abcd-ef-gh")) {
+            CustomerModel customerModel = new CustomerModel(null, "John", "Jakarta", birthdate);
+
+            assertFalse(customerValidator.validateRequest(customerModel).isValid(), birthdate);
+        }
+        assertTrue(customerValidator.validateRequest(new CustomerModel(null, "John", "Jakarta", "2000-02-29")).isValid());
+    }
+
+    @Test
+    public void validateId_givenNonNullId_thenReturnValid() {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setId(1L);
-        ValidationException validationException = Mockito.mock(ValidationException.class);
-        verifyNoInteractions(validationException);
-        customerValidator.validateId(customerModel);
-        verifyNoInteractions(validationException);
+
+        assertTrue(customerValidator.validateId(customerModel).isValid());
     }
 
     @Test
-    public void validateId_givenNullId_thenThrowValidationException() {
+    public void validateId_givenNullId_thenReturnIdError() {
         CustomerModel customerModel = new CustomerModel();
         customerModel.setId(null);
 
-        assertThrows(ValidationException.class, () -> {
-            customerValidator.validateId(customerModel);
-        });
+        ValidationResult result = customerValidator.validateId(customerModel);
+
+        assertFalse(result.isValid());
+        assertEquals("id must not be empty", result.getMessage());
     }
-}
 
+    @Test
+    public void validateLimit_givenLimitOutOfRange_thenReturnLimitError() {
+        assertFalse(customerValidator.validateLimit(0).isValid());
+        assertFalse(customerValidator.validateLimit(1001).isValid());
+    }
+
+    @Test
+    public void validateLimit_givenLimitInRange_thenReturnValid() {
+        assertTrue(customerValidator.validateLimit(1000).isValid());
+    }
+
+    @Test
+    public void validateBatch_givenEmptyOrOversizedBatch_thenReturnBatchError() {
+        List<CustomerModel> oversized = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            oversized.add(new CustomerModel());
+        }
+
+        assertFalse(customerValidator.validateBatch(new ArrayList<>()).isValid());
+        assertFalse(customerValidator.validateBatch(oversized).isValid());
+    }
+
+    @Test
+    public void validateIds_givenIds_thenReturnValid() {
+        assertTrue(customerValidator.validateIds(List.of(1L, 2L)).isValid());
+    }
+
+    @Test
+    public void validateIds_givenEmptyOversizedOrNullIds_thenReturnIdsError() {
+        List<Long> oversized = new ArrayList<>();
+        for (long id = 0; id < 1001; id++) {
+            oversized.add(id);
+        }
+
+        assertEquals("ids must not be empty", customerValidator.validateIds(new ArrayList<>()).getMessage());
+        assertFalse(customerValidator.validateIds(oversized).isValid());
+        assertEquals("ids must not contain empty values", customerValidator.validateIds(Arrays.asList(1L, null)).getMessage());
+    }
+
+    @Test
+    public void validateSearch_givenValidFilters_thenReturnValid() {
+        assertTrue(customerValidator.validateSearch("Joh", null, "1990-01-01", "2000-01-01", "relevance", 20).isValid());
+        assertTrue(customerValidator.validateSearch(null, null, null, "2000-01-01", "id", 20).isValid());
+    }
+
+    @Test
+    public void validateSearch_givenNoFilter_thenReturnError() {
+        ValidationResult result = customerValidator.validateSearch(null, "", null, null, "id", 20);
+
+        assertEquals("at least one of name, address, birthdateFrom or birthdateTo is required", result.getMessage());
+    }
+
+    @Test
+    public void validateSearch_givenInvalidFilters_thenCollectAllErrors() {
+        ValidationResult result = customerValidator.validateSearch("Jo", "Ja", "2000-01-01", "1990-01-01", "name", 0);
+
+        assertEquals(List.of("name must be at least 3 characters", "address must be at least 3 characters",
+                "birthdateFrom must not be after birthdateTo", "sort must be one of id, relevance",
+                "limit must be between 1 and 1000"), result.getErrors());
+    }
+
+    @Test
+    public void validateSearch_givenRelevanceWithoutText_thenReturnError() {
+        ValidationResult result = customerValidator.validateSearch(null, null, "1990-13-01", null, "relevance", 20);
+
+        assertEquals(List.of("birthdateFrom must be a valid date in yyyy-MM-dd format",
+                "sort by relevance requires name or address"), result.getErrors());
+    }
+
+    @Test
+    public void validatePatch_givenOnlyAddress_thenReturnValid() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setAddress("Bandung");
+
+        assertTrue(customerValidator.validatePatch(patch).isValid());
+    }
+
+    @Test
+    public void validatePatch_givenNullNameAndInvalidBirthdate_thenReturnBothErrors() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setName(null);
+        patch.setBirthdate("2001-02-30");
+
+        ValidationResult result = customerValidator.validatePatch(patch);
+
+        assertFalse(result.isValid());
+        assertEquals("name must not be empty, birthdate must be a valid date in yyyy-MM-dd format", result.getMessage());
+    }
+
+    @Test
+    public void validatePatch_givenUnknownField_thenReturnFieldError() {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setUnknownField("id", 2);
+
+        ValidationResult result = customerValidator.validatePatch(patch);
+
+        assertEquals("id cannot be patched", result.getMessage());
+    }
+
+    @Test
+    public void validateFields_givenNull_thenReturnValid() {
+        assertTrue(customerValidator.validateFields(null).isValid());
+    }
+
+    @Test
+    public void validateFields_givenKnownFields_thenReturnValid() {
+        assertTrue(customerValidator.validateFields("id, name,birthdate").isValid());
+    }
+
+    @Test
+    public void validateFields_givenEmptyValues_thenReturnSingleEmptyError() {
+        ValidationResult result = customerValidator.validateFields("name,,");
+
+        assertFalse(result.isValid());
+        assertEquals("fields must not contain empty values", result.getMessage());
+    }
+
+    @Test
+    public void validateFields_givenUnknownField_thenReturnFieldError() {
+        ValidationResult result = customerValidator.validateFields("name,email");
+
+        assertEquals("fields must only contain id, name, address or birthdate, found email", result.getMessage());
+    }
+}